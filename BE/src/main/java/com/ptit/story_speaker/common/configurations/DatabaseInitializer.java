@@ -0,0 +1,168 @@
+package com.ptit.story_speaker.common.configurations;
+
+import com.ptit.story_speaker.common.utils.TextNormalizer;
+import com.ptit.story_speaker.domain.entity.StoryEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Tạo các index/extension mà Hibernate (ddl-auto=update) không tự sinh được
+ * và backfill dữ liệu dẫn xuất cho các bản ghi cũ.
+ * Mọi câu lệnh đều idempotent, lỗi chỉ ghi log để không chặn việc khởi động ứng dụng.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseInitializer implements ApplicationRunner {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    // Nội dung chương lớn, nạp ít bản ghi mỗi lượt
+    private static final int CHAPTER_BACKFILL_BATCH_SIZE = 50;
+
+    /**
+     * Gộp các bản ghi trùng (USER_ID, STORY_ID) vào một bản ghi giữ lại: cờ là OR của cả nhóm, LAST_SEEN lấy mới nhất.
+     * Các CTE cùng nhìn một snapshot nên UPDATE bản giữ lại và DELETE phần còn lại không giẫm lên nhau.
+     */
+    private static final String MERGE_LIBRARY_DUPLICATES_SQL =
+            "WITH RANKED AS (" +
+            "  SELECT ID, USER_ID, STORY_ID, ROW_NUMBER() OVER (PARTITION BY USER_ID, STORY_ID " +
+            "    ORDER BY IS_FAVORITE DESC NULLS LAST, LAST_SEEN DESC NULLS LAST, ID) AS RN " +
+            "  FROM USER_STORY_LIBRARY), " +
+            "MERGED AS (" +
+            "  SELECT USER_ID, STORY_ID, BOOL_OR(COALESCE(IS_DOWNLOADED, FALSE)) AS IS_DOWNLOADED, " +
+            "    BOOL_OR(COALESCE(IS_COMPLETED, FALSE)) AS IS_COMPLETED, BOOL_OR(COALESCE(IS_FAVORITE, FALSE)) AS IS_FAVORITE, " +
+            "    MAX(LAST_SEEN) AS LAST_SEEN " +
+            "  FROM USER_STORY_LIBRARY GROUP BY USER_ID, STORY_ID HAVING COUNT(*) > 1), " +
+            "KEPT AS (" +
+            "  UPDATE USER_STORY_LIBRARY U SET IS_DOWNLOADED = M.IS_DOWNLOADED, IS_COMPLETED = M.IS_COMPLETED, " +
+            "    IS_FAVORITE = M.IS_FAVORITE, LAST_SEEN = M.LAST_SEEN " +
+            "  FROM RANKED R JOIN MERGED M ON M.USER_ID = R.USER_ID AND M.STORY_ID = R.STORY_ID " +
+            "  WHERE R.ID = U.ID AND R.RN = 1 RETURNING U.ID) " +
+            "DELETE FROM USER_STORY_LIBRARY WHERE ID IN (SELECT ID FROM RANKED WHERE RN > 1)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        createSearchIndexes();
+        backfillStorySearchColumns();
+        backfillChapterWordCounts();
+        ensureLibraryUniqueKey();
+        createLibraryCursorIndexes();
+    }
+
+    private void createSearchIndexes() {
+        // pg_trgm cho phép LIKE '%keyword%' dùng GIN index thay vì quét toàn bảng
+        execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        execute("CREATE INDEX IF NOT EXISTS IDX_STORY_SEARCH_TEXT_TRGM ON STORY USING gin (SEARCH_TEXT gin_trgm_ops)");
+        // Xếp hạng độ liên quan so khớp riêng SEARCH_TITLE (LIKE 'kw%' / '%kw%')
+        execute("CREATE INDEX IF NOT EXISTS IDX_STORY_SEARCH_TITLE_TRGM ON STORY USING gin (SEARCH_TITLE gin_trgm_ops)");
+        execute("CREATE INDEX IF NOT EXISTS IDX_STORY_SEARCH_AUTHOR_TRGM ON STORY USING gin (SEARCH_AUTHOR gin_trgm_ops)");
+    }
+
+    private void backfillStorySearchColumns() {
+        int total = 0;
+        try {
+            while (true) {
+                List<Object[]> rows = jdbcTemplate.query(
+                        "SELECT ID, TITLE, AUTHOR, DESCRIPTION FROM STORY WHERE SEARCH_TEXT IS NULL LIMIT ?",
+                        (rs, rowNum) -> new Object[]{
+                                rs.getString("ID"), rs.getString("TITLE"), rs.getString("AUTHOR"), rs.getString("DESCRIPTION")
+                        },
+                        BACKFILL_BATCH_SIZE);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> updates = rows.stream()
+                        .map(row -> new Object[]{
+                                TextNormalizer.fold((String) row[1]),
+                                TextNormalizer.fold((String) row[2]),
+                                // Không để null, tránh lặp vô hạn với truyện không có nội dung
+                                StoryEntity.buildSearchText((String) row[1], (String) row[2], (String) row[3]),
+                                row[0]
+                        })
+                        .toList();
+                jdbcTemplate.batchUpdate(
+                        "UPDATE STORY SET SEARCH_TITLE = ?, SEARCH_AUTHOR = ?, SEARCH_TEXT = ? WHERE ID = ?", updates);
+                total += rows.size();
+            }
+        } catch (Exception e) {
+            log.warn("Backfill search columns for STORY failed: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Backfilled search columns for {} stories", total);
+        }
+    }
+
+    private void backfillChapterWordCounts() {
+        int total = 0;
+        try {
+            while (true) {
+                List<Object[]> updates = jdbcTemplate.query(
+                        "SELECT ID, CONTENT FROM CHAPTER WHERE WORD_COUNT IS NULL LIMIT ?",
+                        (rs, rowNum) -> new Object[]{
+                                TextNormalizer.countWords(rs.getString("CONTENT")), rs.getString("ID")
+                        },
+                        CHAPTER_BACKFILL_BATCH_SIZE);
+                if (updates.isEmpty()) {
+                    break;
+                }
+                jdbcTemplate.batchUpdate("UPDATE CHAPTER SET WORD_COUNT = ? WHERE ID = ?", updates);
+                total += updates.size();
+            }
+        } catch (Exception e) {
+            log.warn("Backfill word count for CHAPTER failed: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Backfilled word count for {} chapters", total);
+        }
+    }
+
+    private void ensureLibraryUniqueKey() {
+        // Upsert lastSeen (ON CONFLICT) cần unique key (USER_ID, STORY_ID); đây là nơi duy nhất khai báo key này.
+        // Chỉ chạy một lần: khi index đã có thì bỏ qua, không quét bảng mỗi lần khởi động
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'user_story_library' AND indexname = 'uk_usl_user_story'",
+                    Integer.class);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            Integer removed = transactionTemplate.execute(status -> {
+                // Chặn ghi trong lúc gộp để không phát sinh bản ghi trùng mới trước khi tạo index
+                jdbcTemplate.execute("LOCK TABLE USER_STORY_LIBRARY IN SHARE ROW EXCLUSIVE MODE");
+                int count = jdbcTemplate.update(MERGE_LIBRARY_DUPLICATES_SQL);
+                jdbcTemplate.execute("CREATE UNIQUE INDEX UK_USL_USER_STORY ON USER_STORY_LIBRARY (USER_ID, STORY_ID)");
+                return count;
+            });
+            log.info("Created UK_USL_USER_STORY, removed {} duplicate library rows after merging", removed);
+        } catch (Exception e) {
+            // Rollback toàn bộ: không mất dữ liệu, lần khởi động sau thử lại
+            log.error("Could not create UK_USL_USER_STORY on USER_STORY_LIBRARY", e);
+        }
+    }
+
+    private void createLibraryCursorIndexes() {
+        // Cursor danh sách yêu thích sắp theo COALESCE(LAST_UPDATE_DATE, CREATE_DATE), ID; @Index không khai báo
+        // được index biểu thức + partial nên tạo ở đây để keyset đi thẳng trên index, không sort
+        execute("CREATE INDEX IF NOT EXISTS IDX_USL_USER_FAVORITE_UPDATED_ID ON USER_STORY_LIBRARY " +
+                "(USER_ID, COALESCE(LAST_UPDATE_DATE, CREATE_DATE) DESC, ID DESC) WHERE IS_FAVORITE = TRUE");
+    }
+
+    private void execute(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (Exception e) {
+            log.warn("Could not execute [{}]: {}", sql, e.getMessage());
+        }
+    }
+}
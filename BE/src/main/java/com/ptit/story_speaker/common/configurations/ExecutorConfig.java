@@ -0,0 +1,119 @@
+package com.ptit.story_speaker.common.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Các executor dùng cho tác vụ I/O chạy song song (upload MinIO, ...).
+ * Tác vụ I/O dùng virtual thread (Java 21), số upload MinIO đồng thời giới hạn chung bằng Semaphore uploadPermits;
+ * tác vụ nặng CPU (resize ảnh) dùng pool platform thread cố định.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(name = "imageUploadExecutor", destroyMethod = "close")
+    public ExecutorService imageUploadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-upload-", 0).factory());
+    }
+
+    // Giới hạn số upload ảnh lên MinIO đồng thời trên toàn ứng dụng (ảnh EPUB + ảnh nhúng base64 dùng chung)
+    @Bean(name = "uploadPermits")
+    public Semaphore uploadPermits(@Value("${story.upload.max-concurrency:8}") int maxConcurrency) {
+        return new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    @Bean(name = "minioPartUploadExecutor", destroyMethod = "close")
+    public ExecutorService minioPartUploadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("minio-part-", 0).factory());
+    }
+
+    // Resize ảnh tốn CPU: pool nhỏ, hàng đợi có giới hạn, đầy thì bỏ qua (ảnh gốc vẫn dùng được)
+    @Bean(name = "imageDerivativeExecutor")
+    public ThreadPoolTaskExecutor imageDerivativeExecutor(
+            @Value("${story.image-derivative.pool-size:2}") int poolSize,
+            @Value("${story.image-derivative.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-derivative-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Import EPUB chạy nền: số job đồng thời và hàng đợi có giới hạn, đầy thì từ chối (AbortPolicy) để client thử lại sau
+    @Bean(name = "importJobExecutor")
+    public ThreadPoolTaskExecutor importJobExecutor(
+            @Value("${story.import.pool-size:2}") int poolSize,
+            @Value("${story.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    // Tổng hợp audio theo segment: pool nhỏ giới hạn số request đồng thời tới voice service.
+    // NarrationServiceImpl tự xếp lịch segment xoay vòng giữa các manifest, mỗi thread là một worker
+    @Bean(name = "narrationExecutor")
+    public ThreadPoolTaskExecutor narrationExecutor(
+            @Value("${story.narration.pool-size:2}") int poolSize,
+            @Value("${story.narration.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("narration-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Hẹn giờ thử lại segment gặp lỗi tạm thời; tắt ngay khi shutdown (segment còn PENDING được tiếp tục khi khởi động)
+    @Bean(name = "narrationRetryScheduler", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService narrationRetryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("narration-retry").daemon().factory());
+    }
+
+    // Flush lastSeen khi buffer đầy: một thread, tối đa một lượt chờ, lượt thừa bỏ qua (lượt đang chờ sẽ flush hết)
+    @Bean(name = "readingHistoryFlushExecutor")
+    public ThreadPoolTaskExecutor readingHistoryFlushExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("reading-history-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Train giọng chạy nền: mỗi job giữ một thread trong suốt thời gian train, pool-size không nên vượt
+    // voice-service.max-concurrent-training; hàng đợi đầy thì từ chối (AbortPolicy)
+    @Bean(name = "voiceTrainingExecutor")
+    public ThreadPoolTaskExecutor voiceTrainingExecutor(
+            @Value("${story.voice-training.pool-size:1}") int poolSize,
+            @Value("${story.voice-training.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("voice-training-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -8,6 +8,7 @@ import com.ptit.story_speaker.security.CustomUserDetailsService;
 import com.ptit.story_speaker.security.JwtAuthenticationFilter;
 import com.ptit.story_speaker.security.JwtTokenProvider;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -78,6 +79,8 @@ public class SecurityConfig {
 
                 // Cấu hình quyền truy cập các đường dẫn
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch ASYNC/ERROR của SSE đã được xác thực ở request gốc
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers(PUBLIC_URLS).permitAll()
                         .anyRequest().authenticated() // Tất cả các request còn lại phải có token hợp lệ
                 )
@@ -0,0 +1,34 @@
+package com.ptit.story_speaker.common.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cấu hình kết nối tới dịch vụ giọng nói (TTS / train model): địa chỉ, timeout theo từng thao tác,
+ * giới hạn số request đồng thời và ngưỡng ngắt mạch.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "voice-service")
+public class VoiceServiceProperties {
+
+    private String baseUrl = "http://localhost:8000";
+    private String synthesisPath = "/text-to-speech-and-infer/";
+    private String trainingPath = "/train-model/";
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration synthesisTimeout = Duration.ofMinutes(2);
+    private Duration trainingTimeout = Duration.ofMinutes(20);
+
+    // Bulkhead: số request đồng thời tối đa, quá thì chờ tối đa bulkheadWait rồi từ chối
+    private int maxConcurrentSynthesis = 4;
+    private int maxConcurrentTraining = 1;
+    private Duration bulkheadWait = Duration.ofSeconds(2);
+
+    // Circuit breaker: mở mạch sau failureThreshold lỗi liên tiếp, thử lại sau openDuration
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+}
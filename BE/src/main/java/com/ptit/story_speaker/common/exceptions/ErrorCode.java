@@ -24,7 +24,14 @@ public enum ErrorCode{
 
     // === Lỗi Nghiệp vụ (Business) ===
     RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND, "BUSS_404", "Không tìm thấy tài nguyên được yêu cầu."),
-    EMAIL_EXISTS(HttpStatus.BAD_REQUEST, "BUSS_1001", "Email này đã được sử dụng.");
+    EMAIL_EXISTS(HttpStatus.BAD_REQUEST, "BUSS_1001", "Email này đã được sử dụng."),
+    PAYLOAD_TOO_LARGE(HttpStatus.PAYLOAD_TOO_LARGE, "BUSS_1002", "Dữ liệu tải lên vượt quá dung lượng cho phép."),
+    IMPORT_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "BUSS_1003", "Hệ thống đang bận xử lý import. Vui lòng thử lại sau."),
+
+    // === Lỗi dịch vụ AI ===
+    VOICE_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "AI_1001", "Dịch vụ giọng nói tạm thời không khả dụng. Vui lòng thử lại sau."),
+    VOICE_SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "AI_1002", "Dịch vụ giọng nói đang quá tải. Vui lòng thử lại sau."),
+    VOICE_TRAINING_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "AI_1003", "Hệ thống đang bận train giọng. Vui lòng thử lại sau.");
 
 
     private final HttpStatus status;
@@ -0,0 +1,84 @@
+package com.ptit.story_speaker.common.utils;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Mã hóa / giải mã cursor cho keyset pagination.
+ * Cursor là chuỗi opaque (base64url) của cặp (thời điểm sắp xếp, id) của phần tử cuối trang trước;
+ * cursor tìm kiếm theo độ liên quan có thêm điểm rank ở đầu: (rank, thời điểm, id).
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public record Cursor(LocalDateTime time, String id) {
+    }
+
+    public record RankedCursor(int rank, LocalDateTime time, String id) {
+    }
+
+    public static String encode(LocalDateTime time, String id) {
+        return encodeRaw(time + SEPARATOR + id);
+    }
+
+    public static String encodeRanked(int rank, LocalDateTime time, String id) {
+        return encodeRaw(rank + SEPARATOR + time + SEPARATOR + id);
+    }
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = decodeRaw(cursor);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex <= 0 || separatorIndex == raw.length() - 1) {
+                throw invalidCursor();
+            }
+            LocalDateTime time = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            return new Cursor(time, raw.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor();
+        }
+    }
+
+    public static RankedCursor decodeRanked(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = decodeRaw(cursor);
+            int rankEnd = raw.indexOf(SEPARATOR);
+            int timeEnd = rankEnd > 0 ? raw.indexOf(SEPARATOR, rankEnd + 1) : -1;
+            if (timeEnd <= rankEnd + 1 || timeEnd == raw.length() - 1) {
+                throw invalidCursor();
+            }
+            int rank = Integer.parseInt(raw.substring(0, rankEnd));
+            LocalDateTime time = LocalDateTime.parse(raw.substring(rankEnd + 1, timeEnd));
+            return new RankedCursor(rank, time, raw.substring(timeEnd + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeRaw(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private static AppException invalidCursor() {
+        return new AppException(ErrorCode.VALIDATION_FAILED, "Cursor không hợp lệ");
+    }
+}
@@ -0,0 +1,246 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Đọc EPUB trực tiếp từ file zip (random access), không nạp toàn bộ resource vào bộ nhớ như epublib.
+ * Chỉ đọc container.xml + OPF (metadata, manifest, spine) khi mở; nội dung chương và ảnh
+ * được đọc theo từng entry khi cần. ZipFile thread-safe nên có thể stream nhiều ảnh song song.
+ */
+public class EpubArchive implements Closeable {
+
+    private static final String CONTAINER_PATH = "META-INF/container.xml";
+
+    /**
+     * Một item trong manifest; href là đường dẫn đầy đủ trong zip (đã resolve theo thư mục OPF).
+     */
+    public record Item(String id, String href, String mediaType, String properties) {
+        public boolean isImage() {
+            return mediaType != null && mediaType.startsWith("image/");
+        }
+    }
+
+    private final ZipFile zipFile;
+    private final Map<String, Item> itemsById = new LinkedHashMap<>();
+    private final Map<String, Item> itemsByHref = new LinkedHashMap<>();
+    private final List<Item> spine = new ArrayList<>();
+    private String title;
+    private String author;
+    private String description;
+    private Item coverImage;
+
+    private EpubArchive(ZipFile zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    public static EpubArchive open(Path file) throws IOException {
+        ZipFile zipFile = new ZipFile(file.toFile(), StandardCharsets.UTF_8);
+        EpubArchive archive = new EpubArchive(zipFile);
+        try {
+            archive.readPackage();
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    private void readPackage() throws IOException {
+        Document container = parseXml(CONTAINER_PATH);
+        Element rootFile = container.selectFirst("rootfile[full-path]");
+        if (rootFile == null) {
+            throw new IOException("Invalid EPUB: missing rootfile in " + CONTAINER_PATH);
+        }
+        String opfPath = rootFile.attr("full-path");
+        Document opf = parseXml(opfPath);
+
+        Element metadata = firstByLocalName(opf, "metadata");
+        if (metadata != null) {
+            title = textByLocalName(metadata, "title");
+            author = textByLocalName(metadata, "creator");
+            description = textByLocalName(metadata, "description");
+        }
+
+        Element manifest = firstByLocalName(opf, "manifest");
+        if (manifest != null) {
+            for (Element element : manifest.children()) {
+                if (!"item".equals(localName(element)) || !element.hasAttr("href")) {
+                    continue;
+                }
+                Item item = new Item(element.attr("id"), resolveHref(opfPath, element.attr("href")),
+                        element.attr("media-type"), element.attr("properties"));
+                itemsById.put(item.id(), item);
+                itemsByHref.put(item.href(), item);
+            }
+        }
+
+        Element spineElement = firstByLocalName(opf, "spine");
+        if (spineElement != null) {
+            for (Element itemRef : spineElement.children()) {
+                Item item = itemsById.get(itemRef.attr("idref"));
+                if (item != null) {
+                    spine.add(item);
+                }
+            }
+        }
+
+        coverImage = findCoverImage(metadata);
+    }
+
+    private Item findCoverImage(Element metadata) {
+        // EPUB 3: properties="cover-image"
+        for (Item item : itemsById.values()) {
+            if (item.properties() != null && item.properties().contains("cover-image")) {
+                return item;
+            }
+        }
+        // EPUB 2: <meta name="cover" content="item-id"/>
+        if (metadata != null) {
+            for (Element meta : metadata.children()) {
+                if ("meta".equals(localName(meta)) && "cover".equals(meta.attr("name"))) {
+                    Item item = itemsById.get(meta.attr("content"));
+                    if (item != null && item.isImage()) {
+                        return item;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Item getCoverImage() {
+        return coverImage;
+    }
+
+    public List<Item> getSpine() {
+        return Collections.unmodifiableList(spine);
+    }
+
+    /**
+     * Tìm item theo đường dẫn đầy đủ; ảnh không khai báo trong manifest vẫn được trả về nếu entry tồn tại.
+     */
+    public Item getByHref(String href) {
+        Item item = itemsByHref.get(href);
+        if (item == null && zipFile.getEntry(href) != null) {
+            item = new Item(null, href, null, null);
+        }
+        return item;
+    }
+
+    public InputStream openStream(Item item) throws IOException {
+        ZipEntry entry = zipFile.getEntry(item.href());
+        if (entry == null) {
+            throw new IOException("Entry not found in EPUB: " + item.href());
+        }
+        return zipFile.getInputStream(entry);
+    }
+
+    public String readText(Item item) throws IOException {
+        try (InputStream inputStream = openStream(item)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Document parseXml(String path) throws IOException {
+        ZipEntry entry = zipFile.getEntry(path);
+        if (entry == null) {
+            throw new IOException("Invalid EPUB: missing " + path);
+        }
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "", Parser.xmlParser());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    /**
+     * Resolve đường dẫn tương đối (vd "../images/pic.jpg") theo file gốc (vd "OEBPS/Text/chap1.html").
+     */
+    public static String resolveHref(String baseHref, String relativeHref) {
+        try {
+            String basePath = "";
+            int lastSlashIdx = baseHref.lastIndexOf('/');
+            if (lastSlashIdx >= 0) {
+                basePath = baseHref.substring(0, lastSlashIdx + 1);
+            }
+
+            // Dummy scheme để URI xử lý ".." đúng; getPath() đồng thời decode %20...
+            URI baseUri = new URI("file", null, "/" + basePath, null);
+            String resolvedPath = baseUri.resolve(toUri(stripFragment(relativeHref))).getPath();
+            if (resolvedPath.startsWith("/")) {
+                resolvedPath = resolvedPath.substring(1);
+            }
+            return resolvedPath;
+        } catch (URISyntaxException e) {
+            return relativeHref; // Fallback
+        }
+    }
+
+    private static URI toUri(String href) throws URISyntaxException {
+        try {
+            // href trong EPUB thường đã percent-encode
+            return URI.create(href);
+        } catch (IllegalArgumentException e) {
+            // href chứa ký tự chưa encode (dấu cách, tiếng Việt...)
+            return new URI(null, null, href, null);
+        }
+    }
+
+    private static String stripFragment(String href) {
+        int hashIdx = href.indexOf('#');
+        return hashIdx >= 0 ? href.substring(0, hashIdx) : href;
+    }
+
+    private static String localName(Element element) {
+        String tagName = element.tagName();
+        int colonIdx = tagName.indexOf(':');
+        return colonIdx >= 0 ? tagName.substring(colonIdx + 1) : tagName;
+    }
+
+    private static Element firstByLocalName(Element root, String name) {
+        for (Element element : root.getAllElements()) {
+            if (name.equals(localName(element))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static String textByLocalName(Element root, String name) {
+        Element element = firstByLocalName(root, name);
+        return element != null && !element.text().isBlank() ? element.text().trim() : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tách nội dung chương thành các khối (đoạn văn) theo thứ tự.
+ * - Phần tử HTML cấp cao nhất trong body (p, div, img, h1...) là một khối.
+ * - Văn bản thuần (ví dụ truyện do AI sinh) được tách theo dòng trống.
+ */
+public final class HtmlBlockSplitter {
+
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n");
+
+    private HtmlBlockSplitter() {
+    }
+
+    public static List<String> split(String content) {
+        List<String> blocks = new ArrayList<>();
+        if (content == null || content.isBlank()) {
+            return blocks;
+        }
+
+        Document doc = Jsoup.parseBodyFragment(content);
+        doc.outputSettings().prettyPrint(false);
+        for (Node node : doc.body().childNodes()) {
+            if (node instanceof Element element) {
+                blocks.add(element.outerHtml());
+            } else if (node instanceof TextNode textNode && !textNode.isBlank()) {
+                for (String paragraph : BLANK_LINES.split(textNode.getWholeText())) {
+                    if (!paragraph.isBlank()) {
+                        blocks.add(new TextNode(paragraph.strip()).outerHtml());
+                    }
+                }
+            }
+        }
+        return blocks;
+    }
+}
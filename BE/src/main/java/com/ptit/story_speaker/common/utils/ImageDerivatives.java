@@ -0,0 +1,34 @@
+package com.ptit.story_speaker.common.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quy ước đặt tên ảnh thu nhỏ: lưu cạnh ảnh gốc, "<tên gốc bỏ đuôi>-w<width>.jpg".
+ * Nhờ vậy URL thumbnail suy ra được từ URL ảnh gốc mà không cần lưu từng URL.
+ */
+public final class ImageDerivatives {
+
+    public static final List<Integer> COVER_WIDTHS = List.of(160, 320, 640);
+    // Kích thước dùng cho card ở danh sách truyện
+    public static final int CARD_WIDTH = 320;
+
+    private ImageDerivatives() {
+    }
+
+    public static String derivativeName(String original, int width) {
+        int slashIdx = original.lastIndexOf('/');
+        int dotIdx = original.lastIndexOf('.');
+        String base = dotIdx > slashIdx ? original.substring(0, dotIdx) : original;
+        return base + "-w" + width + ".jpg";
+    }
+
+    public static Map<String, String> coverThumbnails(String coverImageUrl) {
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        for (int width : COVER_WIDTHS) {
+            thumbnails.put(String.valueOf(width), derivativeName(coverImageUrl, width));
+        }
+        return thumbnails;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.jsoup.Jsoup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tách nội dung chương thành các đoạn văn bản để tổng hợp giọng nói.
+ * - Mỗi khối (đoạn văn) của {@link HtmlBlockSplitter} là một segment; khối không có chữ (ảnh) bị bỏ qua.
+ * - Đoạn dài hơn maxChars được chia theo câu, gom các câu liền nhau cho tới maxChars.
+ */
+public final class NarrationSegmenter {
+
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?…。])\\s+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private NarrationSegmenter() {
+    }
+
+    public static List<String> segment(String content, int maxChars) {
+        List<String> segments = new ArrayList<>();
+        for (String block : HtmlBlockSplitter.split(content)) {
+            String text = WHITESPACES.matcher(Jsoup.parseBodyFragment(block).text()).replaceAll(" ").trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (text.length() <= maxChars) {
+                segments.add(text);
+                continue;
+            }
+            StringBuilder current = new StringBuilder();
+            for (String sentence : SENTENCE_END.split(text)) {
+                if (current.length() > 0 && current.length() + 1 + sentence.length() > maxChars) {
+                    segments.add(current.toString());
+                    current.setLength(0);
+                }
+                if (current.length() > 0) {
+                    current.append(' ');
+                }
+                current.append(sentence);
+            }
+            if (current.length() > 0) {
+                segments.add(current.toString());
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Danh sách SseEmitter đang mở theo khóa (job id, manifest id, ...): gửi sự kiện cho mọi client
+ * đang theo dõi một khóa, tự bỏ emitter khi client ngắt kết nối hoặc hết hạn.
+ */
+public class SseEmitterRegistry {
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public void register(String key, SseEmitter emitter) {
+        emitters.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable remove = () -> remove(key, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+    }
+
+    public void send(String key, String eventName, Object data) {
+        List<SseEmitter> keyEmitters = emitters.get(key);
+        if (keyEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : keyEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+                remove(key, emitter);
+            }
+        }
+    }
+
+    /**
+     * Gửi sự kiện cuối rồi đóng mọi emitter của khóa.
+     */
+    public void complete(String key, String eventName, Object data) {
+        List<SseEmitter> keyEmitters = emitters.remove(key);
+        if (keyEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : keyEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+                emitter.complete();
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+            }
+        }
+    }
+
+    private void remove(String key, SseEmitter emitter) {
+        emitters.computeIfPresent(key, (k, keyEmitters) -> {
+            keyEmitters.remove(emitter);
+            return keyEmitters.isEmpty() ? null : keyEmitters;
+        });
+    }
+}
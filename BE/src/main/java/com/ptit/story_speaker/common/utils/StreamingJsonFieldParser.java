@@ -0,0 +1,228 @@
+package com.ptit.story_speaker.common.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parse dần một đối tượng JSON đang được stream theo từng đoạn (token của LLM) và phát ra phần văn bản
+ * mới của các trường chuỗi được theo dõi (đường dẫn dạng "meta.title", "story.beginning") ngay khi nhận được,
+ * không cần chờ hết JSON.
+ * <p>
+ * Bỏ qua mọi ký tự trước dấu '{' đầu tiên và sau khi đối tượng gốc đóng (ví dụ markdown fence ```json).
+ * Chỉ giải mã chuỗi; số, boolean và chuỗi nằm trong mảng bị bỏ qua. Không phải thread-safe.
+ */
+public class StreamingJsonFieldParser {
+
+    @FunctionalInterface
+    public interface FieldListener {
+        void onText(String path, String fragment);
+    }
+
+    private static final class Frame {
+        final boolean object;
+        String key;
+        boolean expectKey;
+
+        Frame(boolean object) {
+            this.object = object;
+            this.expectKey = object;
+        }
+    }
+
+    private final Set<String> fields;
+    private final FieldListener listener;
+    private final Map<String, StringBuilder> values = new HashMap<>();
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    private boolean started;
+    private boolean finished;
+
+    private boolean inString;
+    private boolean stringIsKey;
+    private boolean escape;
+    private int unicodeRemaining;
+    private int unicodeValue;
+    // Các chữ số hex đã đọc của \\uXXXX đang dở, để trả lại nguyên văn nếu escape không hợp lệ
+    private final StringBuilder unicodeDigits = new StringBuilder(4);
+    private final StringBuilder key = new StringBuilder();
+    // Đường dẫn của chuỗi giá trị đang đọc nếu được theo dõi, null nếu bỏ qua
+    private String valuePath;
+    // Phần văn bản đã giải mã nhưng chưa phát ra
+    private final StringBuilder pending = new StringBuilder();
+
+    public StreamingJsonFieldParser(Set<String> fields, FieldListener listener) {
+        this.fields = fields;
+        this.listener = listener;
+    }
+
+    public void feed(CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            accept(chunk.charAt(i));
+        }
+        flush(false);
+    }
+
+    /**
+     * Toàn bộ giá trị đã nhận của một trường, null nếu trường chưa xuất hiện.
+     */
+    public String getValue(String path) {
+        StringBuilder value = values.get(path);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Đối tượng JSON gốc đã đóng.
+     */
+    public boolean isComplete() {
+        return finished;
+    }
+
+    private void accept(char c) {
+        if (finished) {
+            return;
+        }
+        if (!started) {
+            if (c == '{') {
+                started = true;
+                stack.push(new Frame(true));
+            }
+            return;
+        }
+        if (inString) {
+            acceptStringChar(c);
+            return;
+        }
+        switch (c) {
+            case '{' -> stack.push(new Frame(true));
+            case '[' -> stack.push(new Frame(false));
+            case '}', ']' -> {
+                stack.pop();
+                finished = stack.isEmpty();
+            }
+            case ':' -> stack.peek().expectKey = false;
+            case ',' -> {
+                Frame top = stack.peek();
+                if (top.object) {
+                    top.expectKey = true;
+                }
+            }
+            case '"' -> startString();
+            default -> {
+                // Khoảng trắng, số, true/false/null
+            }
+        }
+    }
+
+    private void startString() {
+        inString = true;
+        Frame top = stack.peek();
+        stringIsKey = top.object && top.expectKey;
+        if (stringIsKey) {
+            key.setLength(0);
+        } else {
+            valuePath = trackedPath();
+        }
+    }
+
+    private void acceptStringChar(char c) {
+        if (unicodeRemaining > 0) {
+            int digit = Character.digit(c, 16);
+            if (digit >= 0) {
+                unicodeValue = unicodeValue * 16 + digit;
+                unicodeDigits.append(c);
+                if (--unicodeRemaining == 0) {
+                    append((char) unicodeValue);
+                }
+                return;
+            }
+            // \\u không đủ 4 chữ số hex (LLM sinh sai): giữ nguyên văn bản gốc, ký tự hiện tại xử lý như bình thường
+            unicodeRemaining = 0;
+            append('\\');
+            append('u');
+            for (int i = 0; i < unicodeDigits.length(); i++) {
+                append(unicodeDigits.charAt(i));
+            }
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> append('\n');
+                case 't' -> append('\t');
+                case 'r' -> append('\r');
+                case 'b' -> append('\b');
+                case 'f' -> append('\f');
+                case 'u' -> {
+                    unicodeRemaining = 4;
+                    unicodeValue = 0;
+                    unicodeDigits.setLength(0);
+                }
+                default -> append(c); // \" \\ \/
+            }
+            return;
+        }
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            endString();
+        } else {
+            append(c);
+        }
+    }
+
+    private void append(char c) {
+        if (stringIsKey) {
+            key.append(c);
+        } else if (valuePath != null) {
+            pending.append(c);
+        }
+    }
+
+    private void endString() {
+        inString = false;
+        if (stringIsKey) {
+            stack.peek().key = key.toString();
+        } else {
+            flush(true);
+            valuePath = null;
+        }
+    }
+
+    private void flush(boolean endOfString) {
+        if (valuePath == null || pending.isEmpty()) {
+            return;
+        }
+        int length = pending.length();
+        // Không tách cặp surrogate (emoji) giữa hai lần phát
+        if (!endOfString && Character.isHighSurrogate(pending.charAt(length - 1))) {
+            length--;
+            if (length == 0) {
+                return;
+            }
+        }
+        String fragment = pending.substring(0, length);
+        pending.delete(0, length);
+        values.computeIfAbsent(valuePath, k -> new StringBuilder()).append(fragment);
+        listener.onText(valuePath, fragment);
+    }
+
+    private String trackedPath() {
+        StringBuilder path = new StringBuilder();
+        Iterator<Frame> frames = stack.descendingIterator();
+        while (frames.hasNext()) {
+            Frame frame = frames.next();
+            if (!frame.object || frame.key == null) {
+                return null;
+            }
+            if (!path.isEmpty()) {
+                path.append('.');
+            }
+            path.append(frame.key);
+        }
+        String candidate = path.toString();
+        return fields.contains(candidate) ? candidate : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.jsoup.Jsoup;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa văn bản tiếng Việt phục vụ tìm kiếm: bỏ dấu, đ -> d, chữ thường, gộp khoảng trắng.
+ * Ví dụ: "Cổ  Tích" -> "co tich".
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String withoutMarks = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return WHITESPACES.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Đếm số từ của nội dung chương (HTML hoặc văn bản thường).
+     */
+    public static int countWords(String html) {
+        if (html == null || html.isBlank()) {
+            return 0;
+        }
+        String text = Jsoup.parse(html).text().trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        return WHITESPACES.split(text).length;
+    }
+
+    /**
+     * Chuẩn hóa văn bản trước khi tổng hợp giọng nói (dùng làm khóa cache): NFC, gộp khoảng trắng, giữ nguyên dấu và hoa/thường.
+     */
+    public static String normalizeForSpeech(String text) {
+        if (text == null) {
+            return null;
+        }
+        return WHITESPACES.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Escape ký tự đặc biệt của LIKE ('%', '_', '\') để dùng với escape char '\'.
+     */
+    public static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -5,14 +5,18 @@ import com.ptit.story_speaker.domain.dto.request.VoiceGenerationRequest;
 import com.ptit.story_speaker.domain.dto.request.VoiceTrainRequest;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
 import com.ptit.story_speaker.domain.dto.response.VoiceResponse;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainingJobResponse;
 import com.ptit.story_speaker.services.AIService;
+import com.ptit.story_speaker.services.VoiceTrainingJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -21,9 +25,11 @@ import java.util.Map;
 public class AIController {
 
     private final AIService aiService;
+    private final VoiceTrainingJobService voiceTrainingJobService;
 
-    public AIController(AIService aiService) {
+    public AIController(AIService aiService, VoiceTrainingJobService voiceTrainingJobService) {
         this.aiService = aiService;
+        this.voiceTrainingJobService = voiceTrainingJobService;
     }
 
     @Operation(summary = "Tạo story", security = @SecurityRequirement(name = "bearerAuth"))
@@ -32,6 +38,13 @@ public class AIController {
         return ResponseEntity.ok(aiService.generateStory(request));
     }
 
+    @Operation(summary = "Tạo story dạng stream (SSE)", security = @SecurityRequirement(name = "bearerAuth"))
+    @PostMapping(value = "/generate-story/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStory(@RequestBody StoryGenerationRequest request) {
+        // Sự kiện "delta" chứa phần văn bản mới, "completed" chứa truyện đã lưu, "error" khi thất bại
+        return aiService.streamStory(request);
+    }
+
     @PostMapping("/generate-voice")
     public ResponseEntity<Map<String, String>> generateVoice(@RequestBody VoiceGenerationRequest request) {
         String audioPath = aiService.generateVoice(request);
@@ -42,8 +55,19 @@ public class AIController {
     }
 
     @PostMapping(value = "/train-model", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<VoiceResponse> trainModel(@ModelAttribute VoiceTrainRequest request) {
-        return ResponseEntity.ok(aiService.trainModel(request));
+    public ResponseEntity<VoiceTrainingJobResponse> trainModel(@ModelAttribute VoiceTrainRequest request) throws IOException {
+        // Train chạy nền, client theo dõi qua /training-jobs/{jobId}
+        return ResponseEntity.accepted().body(voiceTrainingJobService.submitTraining(request));
+    }
+
+    @GetMapping("/training-jobs/{jobId}")
+    public ResponseEntity<VoiceTrainingJobResponse> getTrainingJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(voiceTrainingJobService.getJob(jobId));
+    }
+
+    @GetMapping(value = "/training-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTrainingJob(@PathVariable String jobId) {
+        return voiceTrainingJobService.subscribe(jobId);
     }
 
     @GetMapping("/my-voices")
@@ -1,5 +1,6 @@
 package com.ptit.story_speaker.controllers;
 
+import com.ptit.story_speaker.services.ContentCacheService;
 import com.ptit.story_speaker.services.StoryService;
 import com.ptit.story_speaker.services.UserService;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,7 @@ public class DashboardController {
 
     private final UserService userService;
     private final StoryService storyService;
+    private final ContentCacheService contentCacheService;
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
@@ -32,4 +34,10 @@ public class DashboardController {
 
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCacheStats() {
+        return ResponseEntity.ok(contentCacheService.getStats());
+    }
 }
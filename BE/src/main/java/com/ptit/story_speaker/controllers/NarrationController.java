@@ -0,0 +1,39 @@
+package com.ptit.story_speaker.controllers;
+
+import com.ptit.story_speaker.domain.dto.request.NarrationRequest;
+import com.ptit.story_speaker.domain.dto.response.NarrationManifestResponse;
+import com.ptit.story_speaker.services.NarrationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/narrations")
+@RequiredArgsConstructor
+public class NarrationController {
+
+    private final NarrationService narrationService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<NarrationManifestResponse> requestNarration(@RequestBody @Valid NarrationRequest request) {
+        // Tổng hợp chạy nền, manifest trả về ngay (có thể chưa có segment nào sẵn sàng)
+        return ResponseEntity.accepted().body(narrationService.requestNarration(request));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<NarrationManifestResponse> getManifest(@PathVariable String id) {
+        return ResponseEntity.ok(narrationService.getManifest(id));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public SseEmitter streamManifest(@PathVariable String id) {
+        return narrationService.subscribe(id);
+    }
+}
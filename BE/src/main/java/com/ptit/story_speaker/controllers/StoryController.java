@@ -2,24 +2,38 @@ package com.ptit.story_speaker.controllers;
 
 import com.ptit.story_speaker.domain.dto.request.*;
 import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.CursorPageResponse;
+import com.ptit.story_speaker.domain.dto.response.ImportJobResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryCardResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.domain.model.ChapterContentSegment;
+import com.ptit.story_speaker.domain.model.ContentVersion;
 import com.ptit.story_speaker.services.EpubService;
+import com.ptit.story_speaker.services.ImportJobService;
 import com.ptit.story_speaker.services.StoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -29,6 +43,10 @@ public class StoryController {
 
     private final StoryService storyService;
     private final EpubService epubService;
+    private final ImportJobService importJobService;
+
+    // Đẩy phần đầu (khoảng một màn hình) ra ngay, phần còn lại để container tự buffer
+    private static final int FIRST_FLUSH_CHARS = 8192;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
@@ -53,9 +71,22 @@ public class StoryController {
 
     @PostMapping(value = "/import-epub", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<StoryResponse> importEpub(@RequestParam("file") MultipartFile file) throws IOException {
-        StoryResponse response = storyService.importEpub(file);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ImportJobResponse> importEpub(@RequestParam("file") MultipartFile file) throws IOException {
+        // Import chạy nền, client theo dõi qua /import-jobs/{jobId}
+        ImportJobResponse response = importJobService.submitEpubImport(file);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/import-jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(jobId));
+    }
+
+    @GetMapping(value = "/import-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public SseEmitter streamImportJob(@PathVariable String jobId) {
+        return importJobService.subscribe(jobId);
     }
 
     @PostMapping("/save-extracted")
@@ -87,6 +118,13 @@ public class StoryController {
         return ResponseEntity.ok(storyService.getStoriesForUser(pageable));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<StoryCardResponse>> getStoriesForUserByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(storyService.getStoriesForUserByCursor(cursor, size));
+    }
+
     @PostMapping("/search")
     public ResponseEntity<Page<StoryCardResponse>> searchStories(
             @RequestBody StorySearchRequest request,
@@ -94,6 +132,14 @@ public class StoryController {
         return ResponseEntity.ok(storyService.searchStories(request, pageable));
     }
 
+    @PostMapping("/search/cursor")
+    public ResponseEntity<CursorPageResponse<StoryCardResponse>> searchStoriesByCursor(
+            @RequestBody StorySearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(storyService.searchStoriesByCursor(request, cursor, size));
+    }
+
     @GetMapping("/recently-read")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Page<StoryCardResponse>> getRecentlyReadStories(
@@ -101,6 +147,14 @@ public class StoryController {
         return ResponseEntity.ok(storyService.getRecentlyReadStories(pageable));
     }
 
+    @GetMapping("/recently-read/cursor")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageResponse<StoryCardResponse>> getRecentlyReadStoriesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(storyService.getRecentlyReadStoriesByCursor(cursor, size));
+    }
+
     @GetMapping("/favorites")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Page<StoryCardResponse>> getFavoriteStories(
@@ -108,6 +162,14 @@ public class StoryController {
         return ResponseEntity.ok(storyService.getFavoriteStories(pageable));
     }
 
+    @GetMapping("/favorites/cursor")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageResponse<StoryCardResponse>> getFavoriteStoriesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(storyService.getFavoriteStoriesByCursor(cursor, size));
+    }
+
     @PostMapping("/{id}/favorite")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Void> favoriteStory(@PathVariable String id) {
@@ -122,16 +184,80 @@ public class StoryController {
         return ResponseEntity.ok(storyService.getUserLibrary(pageable));
     }
 
+    /**
+     * Hỗ trợ conditional GET: If-None-Match / If-Modified-Since khớp version thì trả 304
+     * chỉ sau một truy vấn version, không nạp truyện hay chương.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<StoryResponse> getStoryById(@PathVariable String id) {
-        StoryResponse response = storyService.getStoryById(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StoryResponse> getStoryById(@PathVariable String id, WebRequest webRequest) {
+        // Trạng thái yêu thích đọc một lần, dùng cho cả ETag và body
+        boolean isFavorite = storyService.isFavoriteStory(id);
+        ContentVersion version = storyService.getStoryVersion(id, isFavorite);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
+        StoryResponse response = storyService.getStoryById(id, version, isFavorite);
+        // Body có isFavorite theo user nên chỉ cho cache private
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(response);
     }
 
     @GetMapping("/chapter/{id}")
-    public ResponseEntity<ChapterResponse> getChapterById(@PathVariable String id) {
+    public ResponseEntity<ChapterResponse> getChapterById(@PathVariable String id, WebRequest webRequest) {
+        ContentVersion version = storyService.getChapterVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         ChapterResponse response = storyService.getChapterById(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+    }
+
+    /**
+     * Trả nội dung chương dạng text/html, ghi trực tiếp ra response (không bọc JSON).
+     * Có tham số segment thì chỉ trả các khối (đoạn văn) của segment đó để reader hiển thị màn đầu sớm;
+     * tổng số segment nằm ở header X-Total-Segments. Nén gzip do server.compression đảm nhiệm.
+     */
+    @GetMapping(value = "/chapter/{id}/content", produces = MediaType.TEXT_HTML_VALUE)
+    public void getChapterContent(@PathVariable String id,
+                                  @RequestParam(required = false) Integer segment,
+                                  @RequestParam(defaultValue = "20") int segmentSize,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ContentVersion version = storyService.getChapterVersion(id);
+        if (new ServletWebRequest(request, response).checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        if (segment == null) {
+            String content = storyService.getChapterContent(id);
+            writeChunked(response, List.of(content));
+            return;
+        }
+
+        ChapterContentSegment contentSegment = storyService.getChapterContentSegment(id, segment, segmentSize);
+        response.setHeader("X-Segment", String.valueOf(contentSegment.segment()));
+        response.setHeader("X-Total-Segments", String.valueOf(contentSegment.totalSegments()));
+        writeChunked(response, contentSegment.blocks());
+    }
+
+    private void writeChunked(HttpServletResponse response, List<String> blocks) throws IOException {
+        PrintWriter writer = response.getWriter();
+        int written = 0;
+        boolean flushed = false;
+        for (String block : blocks) {
+            int start = 0;
+            if (!flushed && written + block.length() >= FIRST_FLUSH_CHARS) {
+                start = FIRST_FLUSH_CHARS - written;
+                writer.write(block, 0, start);
+                writer.flush();
+                flushed = true;
+            }
+            writer.write(block, start, block.length() - start);
+            written += block.length();
+        }
     }
 
     @DeleteMapping("/{id}")
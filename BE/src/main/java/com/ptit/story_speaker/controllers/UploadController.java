@@ -0,0 +1,35 @@
+package com.ptit.story_speaker.controllers;
+
+import com.ptit.story_speaker.domain.dto.request.PresignedUploadRequest;
+import com.ptit.story_speaker.domain.dto.request.UploadConfirmRequest;
+import com.ptit.story_speaker.domain.dto.response.PresignedUploadResponse;
+import com.ptit.story_speaker.domain.dto.response.UploadConfirmResponse;
+import com.ptit.story_speaker.services.UploadService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadService uploadService;
+
+    @PostMapping("/presign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PresignedUploadResponse> createPresignedUpload(@RequestBody @Valid PresignedUploadRequest request) {
+        return ResponseEntity.ok(uploadService.createPresignedUpload(request));
+    }
+
+    @PostMapping("/confirm")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UploadConfirmResponse> confirmUpload(@RequestBody @Valid UploadConfirmRequest request) {
+        return ResponseEntity.ok(uploadService.confirmUpload(request));
+    }
+}
@@ -21,4 +21,6 @@ public class ChapterCreationRequest {
     private MultipartFile contentFile;
 
     private List<MultipartFile> illustrationImages;
+
+    private List<String> illustrationImageUrls; // Ảnh đã upload trực tiếp qua /uploads/presign
 }
\ No newline at end of file
@@ -22,4 +22,7 @@ public class ChapterUpdateRequest {
 
     // Danh sách ảnh minh họa mới (nếu muốn thêm ảnh)
     private List<MultipartFile> illustrationImages;
+
+    // Ảnh minh họa đã upload trực tiếp qua /uploads/presign
+    private List<String> illustrationImageUrls;
 }
@@ -0,0 +1,16 @@
+package com.ptit.story_speaker.domain.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class NarrationRequest {
+
+    @NotBlank(message = "Chương không được để trống")
+    private String chapterId;
+
+    @NotBlank(message = "Giọng đọc không được để trống")
+    private String voiceId;
+
+    private String language; // Mặc định "vi"
+}
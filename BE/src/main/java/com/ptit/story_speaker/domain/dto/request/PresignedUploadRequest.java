@@ -0,0 +1,20 @@
+package com.ptit.story_speaker.domain.dto.request;
+
+import com.ptit.story_speaker.domain.model.enums.UploadPurpose;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class PresignedUploadRequest {
+
+    @NotNull(message = "Mục đích upload không được để trống")
+    private UploadPurpose purpose;
+
+    @NotBlank(message = "Content-Type không được để trống")
+    private String contentType;
+
+    @Positive(message = "Kích thước file không hợp lệ")
+    private Long size; // Kích thước dự kiến, dùng để từ chối sớm
+}
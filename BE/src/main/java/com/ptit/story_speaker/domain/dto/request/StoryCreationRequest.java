@@ -28,6 +28,8 @@ public class StoryCreationRequest {
 
     private MultipartFile coverImage;
 
+    private String coverImageUrl; // Ảnh bìa đã upload trực tiếp qua /uploads/presign
+
     private List<StoryCategory> categories;
 
     List<ChapterCreationRequest> chapters;
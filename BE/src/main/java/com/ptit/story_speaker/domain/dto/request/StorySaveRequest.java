@@ -30,4 +30,6 @@ public class StorySaveRequest {
     private List<StoryCategory> categories;
 
     private List<ChapterSaveRequest> chapters;
+
+    private String uploadSessionId; // From StoryExtractionResponse
 }
@@ -26,6 +26,8 @@ public class StoryUpdateRequest {
 
     private MultipartFile coverImage; // Nếu null thì giữ nguyên ảnh cũ
 
+    private String coverImageUrl; // Ảnh bìa đã upload trực tiếp qua /uploads/presign
+
     private List<StoryCategory> categories;
 
     private List<ChapterUpdateRequest> chapters;
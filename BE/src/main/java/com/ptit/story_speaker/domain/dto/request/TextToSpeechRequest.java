@@ -0,0 +1,16 @@
+package com.ptit.story_speaker.domain.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TextToSpeechRequest {
+    private String text;
+    @JsonProperty("model_id")
+    private String modelId;
+    private String locate;
+}
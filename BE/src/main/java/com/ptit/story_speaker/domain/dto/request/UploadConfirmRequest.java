@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.domain.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class UploadConfirmRequest {
+
+    @NotBlank(message = "Tên object không được để trống")
+    private String objectName;
+}
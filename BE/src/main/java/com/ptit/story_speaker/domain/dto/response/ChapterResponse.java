@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ChapterResponse {
     private String id;
+    private String storyId;
     private Integer chapterNumber;
     private String title;
     private String content;
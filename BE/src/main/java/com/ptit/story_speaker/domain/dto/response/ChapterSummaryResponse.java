@@ -0,0 +1,21 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một mục trong mục lục truyện (không kèm nội dung chương).
+ * Nội dung chương lấy qua GET /stories/chapter/{id}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterSummaryResponse {
+    private String id;
+    private Integer chapterNumber;
+    private String title;
+    private Integer wordCount;
+}
@@ -0,0 +1,22 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import com.ptit.story_speaker.domain.model.enums.ImportJobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportJobResponse {
+    private String id;
+    private ImportJobStatus status;
+    private String fileName;
+    private int totalChapters;
+    private int processedChapters;
+    private int totalImages;
+    private int uploadedImages;
+    private String storyId; // Có khi status = COMPLETED
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
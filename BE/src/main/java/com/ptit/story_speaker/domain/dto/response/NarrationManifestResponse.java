@@ -0,0 +1,19 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class NarrationManifestResponse {
+    private String id;
+    private String chapterId;
+    private String voiceId;
+    private String language;
+    private NarrationStatus status;
+    private int totalSegments;
+    private int readySegments;
+    private int failedSegments;
+    private List<NarrationSegmentResponse> segments; // Theo thứ tự phát
+}
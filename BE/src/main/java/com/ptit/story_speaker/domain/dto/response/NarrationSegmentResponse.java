@@ -0,0 +1,12 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import lombok.Data;
+
+@Data
+public class NarrationSegmentResponse {
+    private int index;
+    private String text;
+    private String audioUrl; // Có khi status = READY
+    private NarrationStatus status;
+}
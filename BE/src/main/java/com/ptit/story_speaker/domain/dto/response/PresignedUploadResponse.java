@@ -0,0 +1,20 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUploadResponse {
+    private String uploadUrl;   // PUT thẳng lên MinIO với header Content-Type bên dưới
+    private String contentType;
+    private String objectName;  // Gửi lại ở bước confirm
+    private String fileUrl;     // URL dùng cho coverImageUrl / illustrationImageUrls
+    private LocalDateTime expiresAt;
+}
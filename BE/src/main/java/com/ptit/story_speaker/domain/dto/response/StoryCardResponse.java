@@ -14,6 +14,7 @@ public class StoryCardResponse {
     private String title;
     private String author;
     private String coverImageUrl;
+    private String coverThumbnailUrl; // null khi chưa có thumbnail, client dùng coverImageUrl
     private Boolean isFavorite;
     private Boolean webView;
     private String status;
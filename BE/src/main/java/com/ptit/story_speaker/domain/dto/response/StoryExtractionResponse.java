@@ -18,4 +18,6 @@ public class StoryExtractionResponse {
     private String coverImageUrl;
     private List<StoryCategory> categories;
     private List<ChapterExtractionResponse> chapters;
+    // Gửi lại trong StorySaveRequest để xác nhận đúng các ảnh của lần trích xuất này
+    private String uploadSessionId;
 }
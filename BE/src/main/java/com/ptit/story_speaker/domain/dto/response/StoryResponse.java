@@ -8,9 +8,10 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class StoryResponse {
@@ -19,6 +20,8 @@ public class StoryResponse {
     private String author;
     private String description;
     private String coverImageUrl;
+    private String coverThumbnailUrl;
+    private Map<String, String> coverThumbnails; // width -> URL
     private String ageRating;
     private Boolean isFavorite;
     private StoryStatus status;
@@ -26,5 +29,5 @@ public class StoryResponse {
     private LocalDateTime createDate;
     private LocalDateTime lastUpdateDate;
     private List<String> categoryNames;
-    private List<ChapterResponse> chapters;
+    private List<ChapterSummaryResponse> chapters; // Mục lục, không kèm nội dung chương
 }
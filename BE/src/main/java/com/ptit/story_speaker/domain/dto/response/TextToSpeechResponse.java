@@ -0,0 +1,15 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TextToSpeechResponse {
+    private String message;
+    @JsonProperty("url")
+    private String audioPath;
+}
@@ -0,0 +1,16 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadConfirmResponse {
+    private String fileUrl;
+    private long size;
+    private String contentType;
+}
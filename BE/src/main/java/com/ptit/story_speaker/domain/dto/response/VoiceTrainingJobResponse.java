@@ -0,0 +1,20 @@
+package com.ptit.story_speaker.domain.dto.response;
+
+import com.ptit.story_speaker.domain.model.enums.VoiceTrainingStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class VoiceTrainingJobResponse {
+    private String id;
+    private VoiceTrainingStatus status;
+    private String name;
+    private String fileName;
+    private long fileSize;
+    private String voiceId; // Có khi status = COMPLETED
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,29 @@
+package com.ptit.story_speaker.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Số tham chiếu tới một object content-addressed trên MinIO (tên object = SHA-256 của nội dung).
+ * Object chỉ bị xóa khi REF_COUNT về 0.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "BLOB_REFERENCE")
+public class BlobReferenceEntity {
+    @Id
+    @Column(name = "OBJECT_NAME", length = 255)
+    private String objectName;
+
+    @Column(name = "REF_COUNT", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+}
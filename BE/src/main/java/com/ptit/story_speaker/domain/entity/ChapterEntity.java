@@ -1,5 +1,6 @@
 package com.ptit.story_speaker.domain.entity;
 
+import com.ptit.story_speaker.common.utils.TextNormalizer;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,7 +10,10 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "CHAPTER")
+// Version của truyện (MAX/COUNT theo STORY_ID) và mục lục đều lọc theo STORY_ID
+@Table(name = "CHAPTER", indexes = {
+        @Index(name = "IDX_CHAPTER_STORY_ID_NUMBER", columnList = "STORY_ID, CHAPTER_NUMBER")
+})
 public class ChapterEntity extends BaseEntity {
 
     @Column(name = "CHAPTER_NUMBER")
@@ -21,7 +25,16 @@ public class ChapterEntity extends BaseEntity {
     @Column(name = "CONTENT", columnDefinition = "TEXT")
     private String content;
 
+    @Column(name = "WORD_COUNT")
+    private Integer wordCount;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "STORY_ID", nullable = false)
     private StoryEntity story;
+
+    @PrePersist
+    @PreUpdate
+    void updateWordCount() {
+        this.wordCount = TextNormalizer.countWords(content);
+    }
 }
@@ -0,0 +1,59 @@
+package com.ptit.story_speaker.domain.entity;
+
+import com.ptit.story_speaker.domain.model.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "IMPORT_JOB", indexes = {
+        @Index(name = "IDX_IMPORT_JOB_STATUS", columnList = "STATUS")
+})
+public class ImportJobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "USER_ID", nullable = false)
+    private String userId;
+
+    @Column(name = "FILE_NAME", length = 500)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private ImportJobStatus status;
+
+    @Column(name = "TOTAL_CHAPTERS")
+    private int totalChapters;
+
+    @Column(name = "PROCESSED_CHAPTERS")
+    private int processedChapters;
+
+    @Column(name = "TOTAL_IMAGES")
+    private int totalImages;
+
+    @Column(name = "UPLOADED_IMAGES")
+    private int uploadedImages;
+
+    @Column(name = "STORY_ID")
+    private String storyId;
+
+    @Column(name = "ERROR_MESSAGE", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "CREATED_AT", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "STARTED_AT")
+    private LocalDateTime startedAt;
+
+    @Column(name = "FINISHED_AT")
+    private LocalDateTime finishedAt;
+}
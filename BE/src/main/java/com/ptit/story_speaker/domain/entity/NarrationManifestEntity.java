@@ -0,0 +1,57 @@
+package com.ptit.story_speaker.domain.entity;
+
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Manifest audio của một chương với một giọng đọc: danh sách segment theo thứ tự, mỗi segment một file audio.
+ * CONTENT_HASH là SHA-256 nội dung chương lúc tạo, nội dung đổi thì manifest được dựng lại.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "NARRATION_MANIFEST", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_NARRATION_CHAPTER_VOICE", columnNames = {"CHAPTER_ID", "VOICE_ID", "LANGUAGE"})
+})
+public class NarrationManifestEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "CHAPTER_ID", nullable = false)
+    private String chapterId;
+
+    @Column(name = "VOICE_ID", nullable = false)
+    private String voiceId;
+
+    @Column(name = "LANGUAGE", nullable = false, length = 20)
+    private String language;
+
+    @Column(name = "CONTENT_HASH", length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private NarrationStatus status;
+
+    @Column(name = "TOTAL_SEGMENTS")
+    private int totalSegments;
+
+    @Column(name = "READY_SEGMENTS")
+    private int readySegments;
+
+    @Column(name = "FAILED_SEGMENTS")
+    private int failedSegments;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.ptit.story_speaker.domain.entity;
+
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "NARRATION_SEGMENT", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_NARRATION_SEGMENT_INDEX", columnNames = {"MANIFEST_ID", "SEGMENT_INDEX"})
+}, indexes = {
+        // Job evict cache tổng hợp bỏ qua audio còn được manifest dùng
+        @Index(name = "IDX_NARRATION_SEGMENT_AUDIO_URL", columnList = "AUDIO_URL")
+})
+public class NarrationSegmentEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "MANIFEST_ID", nullable = false)
+    private String manifestId;
+
+    @Column(name = "SEGMENT_INDEX", nullable = false)
+    private int segmentIndex;
+
+    @Column(name = "TEXT", columnDefinition = "TEXT", nullable = false)
+    private String text;
+
+    @Column(name = "AUDIO_URL", length = 1000)
+    private String audioUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private NarrationStatus status;
+}
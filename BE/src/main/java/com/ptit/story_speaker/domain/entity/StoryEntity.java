@@ -1,5 +1,6 @@
 package com.ptit.story_speaker.domain.entity;
 
+import com.ptit.story_speaker.common.utils.TextNormalizer;
 import com.ptit.story_speaker.domain.model.enums.StoryCategory;
 import com.ptit.story_speaker.domain.model.enums.StoryStatus;
 import jakarta.persistence.*;
@@ -13,7 +14,9 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "STORY")
+@Table(name = "STORY", indexes = {
+        @Index(name = "IDX_STORY_CREATE_DATE_ID", columnList = "CREATE_DATE DESC, ID DESC")
+})
 public class StoryEntity extends BaseEntity {
 
     @Column(name = "TITLE", nullable = false)
@@ -28,6 +31,10 @@ public class StoryEntity extends BaseEntity {
     @Column(name = "COVER_IMAGE_URL")
     private String coverImageUrl;
 
+    // Thumbnail cho card (xem ImageDerivatives), null khi chưa sinh xong
+    @Column(name = "COVER_THUMBNAIL_URL")
+    private String coverThumbnailUrl;
+
     @Column(name = "AGE_RATING")
     private Integer ageRating;
 
@@ -51,4 +58,30 @@ public class StoryEntity extends BaseEntity {
 
     @OneToMany(mappedBy = "story")
     private List<UserStoryLibraryEntity> userStoryLibraries;
+
+    // Các cột đã bỏ dấu + chữ thường, dùng cho tìm kiếm (có index trigram, xem DatabaseInitializer)
+    @Column(name = "SEARCH_TITLE")
+    private String searchTitle;
+
+    @Column(name = "SEARCH_AUTHOR")
+    private String searchAuthor;
+
+    @Column(name = "SEARCH_TEXT", columnDefinition = "TEXT")
+    private String searchText;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchColumns() {
+        this.searchTitle = TextNormalizer.fold(title);
+        this.searchAuthor = TextNormalizer.fold(author);
+        this.searchText = buildSearchText(title, author, description);
+    }
+
+    public static String buildSearchText(String title, String author, String description) {
+        StringBuilder sb = new StringBuilder();
+        if (title != null) sb.append(title).append(' ');
+        if (author != null) sb.append(author).append(' ');
+        if (description != null) sb.append(description);
+        return TextNormalizer.fold(sb.toString());
+    }
 }
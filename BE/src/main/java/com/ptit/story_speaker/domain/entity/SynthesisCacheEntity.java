@@ -0,0 +1,46 @@
+package com.ptit.story_speaker.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kết quả text-to-speech đã tổng hợp: khóa là SHA-256 của (văn bản đã chuẩn hóa, voice, ngôn ngữ).
+ * Audio trong cache là file dùng lâu dài, không đăng ký vào TEMPORARY_FILES; job evict theo LAST_HIT_AT xóa cả audio.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SYNTHESIS_CACHE", indexes = {
+        @Index(name = "IDX_SYNTHESIS_CACHE_LAST_HIT_AT", columnList = "LAST_HIT_AT")
+})
+public class SynthesisCacheEntity {
+    @Id
+    @Column(name = "CACHE_KEY", length = 64)
+    private String cacheKey;
+
+    @Column(name = "AUDIO_URL", nullable = false, length = 1000)
+    private String audioUrl;
+
+    @Column(name = "VOICE_ID")
+    private String voiceId;
+
+    @Column(name = "LANGUAGE", length = 20)
+    private String language;
+
+    @Column(name = "TEXT_LENGTH")
+    private Integer textLength;
+
+    @Column(name = "HIT_COUNT", nullable = false)
+    private Long hitCount;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    @Column(name = "LAST_HIT_AT")
+    private LocalDateTime lastHitAt;
+}
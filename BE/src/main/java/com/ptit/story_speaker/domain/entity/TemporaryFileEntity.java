@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "TEMPORARY_FILES")
+@Table(name = "TEMPORARY_FILES", indexes = {
+        @Index(name = "IDX_TEMP_FILES_CREATED_AT_ID", columnList = "CREATED_AT, ID"),
+        @Index(name = "IDX_TEMP_FILES_FILE_URL", columnList = "FILE_URL"),
+        @Index(name = "IDX_TEMP_FILES_SESSION_URL", columnList = "UPLOAD_SESSION, FILE_URL")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class TemporaryFileEntity {
     @Id
@@ -23,6 +27,15 @@ public class TemporaryFileEntity {
     @Column(name = "FILE_URL", nullable = false, length = 1000)
     private String fileUrl;
 
+    // Ảnh upload trực tiếp (presigned) đã qua /uploads/confirm; chỉ ảnh đã xác nhận mới được gắn vào truyện
+    @Column(name = "CONFIRMED")
+    private Boolean confirmed;
+
+    // Lần trích xuất EPUB đã tạo dòng này; ảnh content-addressed trùng URL giữa các lần trích xuất,
+    // khi lưu truyện chỉ xác nhận dòng của đúng phiên đó. Null với upload presigned (URL riêng cho mỗi lần upload)
+    @Column(name = "UPLOAD_SESSION", length = 36)
+    private String uploadSession;
+
     @CreatedDate
     @Column(name = "CREATED_AT", updatable = false)
     private LocalDateTime createdAt;
@@ -2,6 +2,7 @@ package com.ptit.story_speaker.domain.entity;
 
 import com.ptit.story_speaker.domain.model.enums.LoginType;
 import com.ptit.story_speaker.domain.model.enums.Role;
+import com.ptit.story_speaker.security.UserPrincipalEvictionListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "USERS")
+@EntityListeners(UserPrincipalEvictionListener.class)
 public class UserEntity extends BaseEntity implements UserDetails {
     @Column(name = "ROLE")
     @Enumerated(EnumType.STRING)
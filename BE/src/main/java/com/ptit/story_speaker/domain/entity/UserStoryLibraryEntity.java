@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "USER_STORY_LIBRARY")
+// Unique key (USER_ID, STORY_ID) tạo trong DatabaseInitializer sau khi gộp bản ghi trùng cũ
+@Table(name = "USER_STORY_LIBRARY", indexes = {
+        @Index(name = "IDX_USL_USER_LAST_SEEN_ID", columnList = "USER_ID, LAST_SEEN DESC, ID DESC"),
+        @Index(name = "IDX_USL_USER_FAVORITE", columnList = "USER_ID, IS_FAVORITE")
+})
 public class UserStoryLibraryEntity extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,63 @@
+package com.ptit.story_speaker.domain.entity;
+
+import com.ptit.story_speaker.domain.model.enums.VoiceTrainingStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "VOICE_TRAINING_JOB", indexes = {
+        @Index(name = "IDX_VOICE_TRAINING_JOB_STATUS", columnList = "STATUS"),
+        @Index(name = "IDX_VOICE_TRAINING_JOB_USER_ID", columnList = "USER_ID")
+})
+public class VoiceTrainingJobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "USER_ID", nullable = false)
+    private String userId;
+
+    @Column(name = "NAME", nullable = false)
+    private String name;
+
+    @Column(name = "FILE_NAME", length = 500)
+    private String fileName;
+
+    @Column(name = "FILE_SIZE")
+    private long fileSize;
+
+    @Column(name = "F0_METHOD", length = 50)
+    private String f0Method;
+
+    @Column(name = "EPOCHS_NUMBER", length = 20)
+    private String epochsNumber;
+
+    @Column(name = "TRAIN_AT", length = 50)
+    private String trainAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private VoiceTrainingStatus status;
+
+    @Column(name = "VOICE_ID")
+    private String voiceId;
+
+    @Column(name = "ERROR_MESSAGE", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "CREATED_AT", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "STARTED_AT")
+    private LocalDateTime startedAt;
+
+    @Column(name = "FINISHED_AT")
+    private LocalDateTime finishedAt;
+}
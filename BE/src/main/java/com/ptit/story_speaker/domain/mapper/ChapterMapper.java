@@ -1,11 +1,16 @@
 package com.ptit.story_speaker.domain.mapper;
 
 import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.ChapterSummaryResponse;
 import com.ptit.story_speaker.domain.entity.ChapterEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface ChapterMapper {
 
+    @Mapping(target = "storyId", source = "story.id")
     ChapterResponse toResponse(ChapterEntity entity);
+
+    ChapterSummaryResponse toSummaryResponse(ChapterEntity entity);
 }
@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.domain.mapper;
+
+import com.ptit.story_speaker.domain.dto.response.ImportJobResponse;
+import com.ptit.story_speaker.domain.entity.ImportJobEntity;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ImportJobMapper {
+
+    ImportJobResponse toResponse(ImportJobEntity entity);
+}
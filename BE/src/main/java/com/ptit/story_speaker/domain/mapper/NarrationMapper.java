@@ -0,0 +1,22 @@
+package com.ptit.story_speaker.domain.mapper;
+
+import com.ptit.story_speaker.domain.dto.response.NarrationManifestResponse;
+import com.ptit.story_speaker.domain.dto.response.NarrationSegmentResponse;
+import com.ptit.story_speaker.domain.entity.NarrationManifestEntity;
+import com.ptit.story_speaker.domain.entity.NarrationSegmentEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface NarrationMapper {
+
+    @Mapping(target = "segments", ignore = true)
+    NarrationManifestResponse toManifestResponse(NarrationManifestEntity entity);
+
+    @Mapping(target = "index", source = "segmentIndex")
+    NarrationSegmentResponse toSegmentResponse(NarrationSegmentEntity entity);
+
+    List<NarrationSegmentResponse> toSegmentResponseList(List<NarrationSegmentEntity> entities);
+}
@@ -9,5 +9,7 @@ import org.mapstruct.Mapping;
 public interface StoryMapper {
 
     @Mapping(source = "uploader.name", target = "uploaderName")
+    @Mapping(target = "coverThumbnails", ignore = true)
+    @Mapping(target = "chapters", ignore = true) // Mục lục được nạp riêng bằng projection, tránh load nội dung chương
     StoryResponse toStoryResponse(StoryEntity entity);
 }
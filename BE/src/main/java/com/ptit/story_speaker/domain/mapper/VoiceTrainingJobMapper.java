@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.domain.mapper;
+
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainingJobResponse;
+import com.ptit.story_speaker.domain.entity.VoiceTrainingJobEntity;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface VoiceTrainingJobMapper {
+
+    VoiceTrainingJobResponse toResponse(VoiceTrainingJobEntity entity);
+}
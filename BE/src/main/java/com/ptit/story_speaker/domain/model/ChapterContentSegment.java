@@ -0,0 +1,14 @@
+package com.ptit.story_speaker.domain.model;
+
+import java.util.List;
+
+/**
+ * Một đoạn (segment) nội dung chương gồm các khối liên tiếp [segment * segmentSize, (segment + 1) * segmentSize).
+ */
+public record ChapterContentSegment(
+        String chapterId,
+        int segment,
+        int totalSegments,
+        List<String> blocks
+) {
+}
@@ -0,0 +1,23 @@
+package com.ptit.story_speaker.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * ETag (weak, vì response có thể bị gzip) và Last-Modified dùng cho conditional GET.
+ */
+public record ContentVersion(String etag, LocalDateTime lastModified) {
+
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    public static ContentVersion of(LocalDateTime lastModified, Object... parts) {
+        StringBuilder tag = new StringBuilder("W/\"");
+        tag.append(lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0);
+        for (Object part : parts) {
+            tag.append('-').append(part);
+        }
+        return new ContentVersion(tag.append('"').toString(), lastModified);
+    }
+}
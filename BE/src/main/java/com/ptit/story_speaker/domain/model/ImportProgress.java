@@ -0,0 +1,7 @@
+package com.ptit.story_speaker.domain.model;
+
+/**
+ * Tiến độ trích xuất EPUB: số chương đã xử lý và số ảnh đã upload.
+ */
+public record ImportProgress(int processedChapters, int totalChapters, int uploadedImages, int totalImages) {
+}
@@ -0,0 +1,26 @@
+package com.ptit.story_speaker.domain.model;
+
+import com.ptit.story_speaker.domain.model.enums.StoryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Card truyện trong thư viện của user, kèm khóa sắp xếp (lastSeen / lastUpdateDate)
+ * và id của bản ghi thư viện để dựng cursor.
+ */
+public record LibraryCardView(
+        String entryId,
+        LocalDateTime sortKey,
+        String id,
+        String title,
+        String author,
+        String coverImageUrl,
+        String coverThumbnailUrl,
+        StoryStatus status,
+        Boolean webView,
+        LocalDateTime createDate
+) {
+    public StoryCardView toCard() {
+        return new StoryCardView(id, title, author, coverImageUrl, coverThumbnailUrl, status, webView, createDate);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ptit.story_speaker.domain.model;
+
+import com.ptit.story_speaker.domain.model.enums.StoryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Card truyện trong kết quả tìm kiếm, kèm điểm liên quan (rank) để dựng cursor (rank, createDate, id).
+ */
+public record RankedCardView(
+        Integer rank,
+        String id,
+        String title,
+        String author,
+        String coverImageUrl,
+        String coverThumbnailUrl,
+        StoryStatus status,
+        Boolean webView,
+        LocalDateTime createDate
+) {
+    public StoryCardView toCard() {
+        return new StoryCardView(id, title, author, coverImageUrl, coverThumbnailUrl, status, webView, createDate);
+    }
+}
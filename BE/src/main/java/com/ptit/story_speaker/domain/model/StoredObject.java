@@ -0,0 +1,7 @@
+package com.ptit.story_speaker.domain.model;
+
+/**
+ * Metadata của một object đã có trên MinIO (kết quả statObject).
+ */
+public record StoredObject(String objectName, long size, String contentType) {
+}
@@ -0,0 +1,21 @@
+package com.ptit.story_speaker.domain.model;
+
+import com.ptit.story_speaker.domain.model.enums.StoryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model cho danh sách truyện (card).
+ * Chỉ select các cột cần thiết, không load DESCRIPTION (TEXT) và không join uploader.
+ */
+public record StoryCardView(
+        String id,
+        String title,
+        String author,
+        String coverImageUrl,
+        String coverThumbnailUrl,
+        StoryStatus status,
+        Boolean webView,
+        LocalDateTime createDate
+) {
+}
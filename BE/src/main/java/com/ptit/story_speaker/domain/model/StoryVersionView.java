@@ -0,0 +1,13 @@
+package com.ptit.story_speaker.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Phiên bản của truyện và mục lục, đọc bằng một truy vấn nhỏ (không nạp nội dung chương).
+ */
+public record StoryVersionView(
+        LocalDateTime storyVersion,
+        LocalDateTime chapterVersion,
+        Long chapterCount
+) {
+}
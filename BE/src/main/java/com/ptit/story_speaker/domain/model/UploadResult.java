@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.domain.model;
+
+/**
+ * Kết quả một lần upload lên MinIO kèm số liệu thông lượng.
+ */
+public record UploadResult(String url, String objectName, long size, int parts, long durationMs) {
+
+    public double throughputBytesPerSecond() {
+        return durationMs > 0 ? size * 1000.0 / durationMs : size;
+    }
+}
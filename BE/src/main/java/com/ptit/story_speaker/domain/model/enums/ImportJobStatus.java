@@ -0,0 +1,20 @@
+package com.ptit.story_speaker.domain.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ImportJobStatus {
+    QUEUED("Đang chờ xử lý"),
+    EXTRACTING("Đang trích xuất chương và ảnh"),
+    SAVING("Đang lưu truyện"),
+    COMPLETED("Đã hoàn thành"),
+    FAILED("Thất bại");
+
+    private final String description;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
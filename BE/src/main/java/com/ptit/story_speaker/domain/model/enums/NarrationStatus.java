@@ -0,0 +1,15 @@
+package com.ptit.story_speaker.domain.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum NarrationStatus {
+    PENDING("Đang chờ tổng hợp"),
+    PROCESSING("Đang tổng hợp"),
+    READY("Đã sẵn sàng"),
+    FAILED("Thất bại");
+
+    private final String description;
+}
@@ -0,0 +1,14 @@
+package com.ptit.story_speaker.domain.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum UploadPurpose {
+    COVER("cover"),
+    ILLUSTRATION("illustration");
+
+    // Tiền tố tên object trên MinIO
+    private final String filePrefix;
+}
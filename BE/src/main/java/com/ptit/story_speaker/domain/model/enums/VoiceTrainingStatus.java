@@ -0,0 +1,19 @@
+package com.ptit.story_speaker.domain.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum VoiceTrainingStatus {
+    QUEUED("Đang chờ xử lý"),
+    TRAINING("Đang train model"),
+    COMPLETED("Đã hoàn thành"),
+    FAILED("Thất bại");
+
+    private final String description;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.BlobReferenceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobReferenceRepository extends JpaRepository<BlobReferenceEntity, String> {
+
+    // Upsert nguyên tử, an toàn khi nhiều request upload cùng nội dung
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO BLOB_REFERENCE (OBJECT_NAME, REF_COUNT, CREATED_AT) VALUES (:objectName, 1, now()) " +
+            "ON CONFLICT (OBJECT_NAME) DO UPDATE SET REF_COUNT = BLOB_REFERENCE.REF_COUNT + 1",
+            nativeQuery = true)
+    void incrementReference(@Param("objectName") String objectName);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobReferenceEntity b WHERE b.objectName = :objectName")
+    Optional<BlobReferenceEntity> findForUpdate(@Param("objectName") String objectName);
+
+    // Khóa theo thứ tự tên để hai lượt dọn dẹp song song không deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobReferenceEntity b WHERE b.objectName IN :objectNames ORDER BY b.objectName")
+    List<BlobReferenceEntity> findAllForUpdate(@Param("objectNames") Collection<String> objectNames);
+}
@@ -1,9 +1,24 @@
 package com.ptit.story_speaker.repository;
 
+import com.ptit.story_speaker.domain.dto.response.ChapterSummaryResponse;
 import com.ptit.story_speaker.domain.entity.ChapterEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ChapterRepository extends JpaRepository<ChapterEntity, String> {
+
+    @Query("SELECT new com.ptit.story_speaker.domain.dto.response.ChapterSummaryResponse(" +
+            "c.id, c.chapterNumber, c.title, c.wordCount) " +
+            "FROM ChapterEntity c WHERE c.story.id = :storyId ORDER BY c.chapterNumber ASC")
+    List<ChapterSummaryResponse> findSummariesByStoryId(@Param("storyId") String storyId);
+
+    @Query("SELECT COALESCE(c.lastUpdateDate, c.createDate) FROM ChapterEntity c WHERE c.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") String id);
 }
@@ -0,0 +1,36 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.ImportJobEntity;
+import com.ptit.story_speaker.domain.model.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJobEntity, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJobEntity j SET j.processedChapters = :processedChapters, j.totalChapters = :totalChapters, " +
+            "j.uploadedImages = :uploadedImages, j.totalImages = :totalImages WHERE j.id = :id")
+    int updateProgress(@Param("id") String id,
+                       @Param("processedChapters") int processedChapters,
+                       @Param("totalChapters") int totalChapters,
+                       @Param("uploadedImages") int uploadedImages,
+                       @Param("totalImages") int totalImages);
+
+    // Job đang dở khi server dừng sẽ không bao giờ chạy tiếp
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJobEntity j SET j.status = com.ptit.story_speaker.domain.model.enums.ImportJobStatus.FAILED, " +
+            "j.errorMessage = :errorMessage, j.finishedAt = :now WHERE j.status IN :statuses")
+    int failJobsInStatus(@Param("statuses") Collection<ImportJobStatus> statuses,
+                         @Param("errorMessage") String errorMessage,
+                         @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.NarrationManifestEntity;
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NarrationManifestRepository extends JpaRepository<NarrationManifestEntity, String> {
+
+    Optional<NarrationManifestEntity> findByChapterIdAndVoiceIdAndLanguage(String chapterId, String voiceId, String language);
+
+    List<NarrationManifestEntity> findByStatus(NarrationStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NarrationManifestEntity m SET m.readySegments = m.readySegments + :ready, " +
+            "m.failedSegments = m.failedSegments + :failed, m.updatedAt = :now WHERE m.id = :id")
+    void addSegmentResult(@Param("id") String id, @Param("ready") int ready, @Param("failed") int failed,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NarrationManifestEntity m SET m.status = :status, m.updatedAt = :now WHERE m.id = :id")
+    void updateStatus(@Param("id") String id, @Param("status") NarrationStatus status, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.NarrationSegmentEntity;
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface NarrationSegmentRepository extends JpaRepository<NarrationSegmentEntity, String> {
+
+    List<NarrationSegmentEntity> findByManifestIdOrderBySegmentIndex(String manifestId);
+
+    List<NarrationSegmentEntity> findByManifestIdAndStatusOrderBySegmentIndex(String manifestId, NarrationStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NarrationSegmentEntity s SET s.status = :status, s.audioUrl = :audioUrl WHERE s.id = :id")
+    void updateResult(@Param("id") String id, @Param("status") NarrationStatus status, @Param("audioUrl") String audioUrl);
+
+    @Modifying
+    @Query("DELETE FROM NarrationSegmentEntity s WHERE s.manifestId = :manifestId")
+    void deleteByManifestId(@Param("manifestId") String manifestId);
+}
@@ -1,15 +1,44 @@
 package com.ptit.story_speaker.repository;
 
 import com.ptit.story_speaker.domain.entity.StoryEntity;
+import com.ptit.story_speaker.domain.model.StoryVersionView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface StoryRepository extends JpaRepository<StoryEntity, String>, JpaSpecificationExecutor<StoryEntity> {
+public interface StoryRepository extends JpaRepository<StoryEntity, String>, JpaSpecificationExecutor<StoryEntity>, StoryRepositoryCustom {
     Page<StoryEntity> findByWebViewTrue(Pageable pageable);
 
     Page<StoryEntity> findByUploaderId(String uploaderId, Pageable pageable);
+
+    // Số chương nằm trong version để việc xóa chương cũng làm đổi ETag; subquery đi trên IDX_CHAPTER_STORY_ID_NUMBER
+    @Query("SELECT new com.ptit.story_speaker.domain.model.StoryVersionView(" +
+            "COALESCE(s.lastUpdateDate, s.createDate), " +
+            "(SELECT MAX(COALESCE(c.lastUpdateDate, c.createDate)) FROM ChapterEntity c WHERE c.story.id = s.id), " +
+            "(SELECT COUNT(c2.id) FROM ChapterEntity c2 WHERE c2.story.id = s.id)) " +
+            "FROM StoryEntity s WHERE s.id = :id")
+    Optional<StoryVersionView> findVersionById(@Param("id") String id);
+
+    @Query("SELECT s.id FROM StoryEntity s WHERE s.coverImageUrl = :coverImageUrl")
+    List<String> findIdsByCoverImageUrl(@Param("coverImageUrl") String coverImageUrl);
+
+    // Cập nhật cả lastUpdateDate để ETag của truyện thay đổi
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoryEntity s SET s.coverThumbnailUrl = :thumbnailUrl, s.lastUpdateDate = :now " +
+            "WHERE s.coverImageUrl = :coverImageUrl")
+    int updateCoverThumbnailUrl(@Param("coverImageUrl") String coverImageUrl,
+                                @Param("thumbnailUrl") String thumbnailUrl,
+                                @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,34 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.common.utils.CursorCodec;
+import com.ptit.story_speaker.domain.entity.StoryEntity;
+import com.ptit.story_speaker.domain.model.RankedCardView;
+import com.ptit.story_speaker.domain.model.StoryCardView;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+public interface StoryRepositoryCustom {
+
+    Page<StoryCardView> findCards(Specification<StoryEntity> spec, Pageable pageable);
+
+    /**
+     * Keyset pagination theo (createDate DESC, id DESC), không chạy COUNT.
+     * cursor = null để lấy trang đầu.
+     */
+    List<StoryCardView> findCardsAfter(Specification<StoryEntity> spec, CursorCodec.Cursor cursor, int limit);
+
+    /**
+     * Keyset pagination theo (rank DESC, createDate DESC, id DESC), rank là biểu thức điểm liên quan (số nguyên).
+     * cursor = null để lấy trang đầu.
+     */
+    List<RankedCardView> findRankedCardsAfter(Specification<StoryEntity> spec,
+                                              BiFunction<Root<StoryEntity>, CriteriaBuilder, Expression<Integer>> rank,
+                                              CursorCodec.RankedCursor cursor, int limit);
+}
@@ -0,0 +1,152 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.common.utils.CursorCodec;
+import com.ptit.story_speaker.domain.entity.StoryEntity;
+import com.ptit.story_speaker.domain.model.RankedCardView;
+import com.ptit.story_speaker.domain.model.StoryCardView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class StoryRepositoryCustomImpl implements StoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<StoryCardView> findCards(Specification<StoryEntity> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StoryCardView> query = cb.createQuery(StoryCardView.class);
+        Root<StoryEntity> root = query.from(StoryEntity.class);
+
+        applySpecification(spec, root, query, cb);
+        query.select(cardSelection(root, cb));
+
+        // Giữ thứ tự do specification đặt (nếu có), sau đó mới tới sort của pageable
+        List<Order> orders = new ArrayList<>(query.getOrderList());
+        orders.addAll(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        query.orderBy(orders);
+
+        TypedQuery<StoryCardView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<StoryCardView> findCardsAfter(Specification<StoryEntity> spec, CursorCodec.Cursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StoryCardView> query = cb.createQuery(StoryCardView.class);
+        Root<StoryEntity> root = query.from(StoryEntity.class);
+
+        applySpecification(spec, root, query, cb);
+        if (cursor != null) {
+            Path<LocalDateTime> createDate = root.get("createDate");
+            Path<String> id = root.get("id");
+            // (createDate, id) < (cursor.time, cursor.id)
+            Predicate afterCursor = cb.or(
+                    cb.lessThan(createDate, cursor.time()),
+                    cb.and(cb.equal(createDate, cursor.time()), cb.lessThan(id, cursor.id())));
+            Predicate current = query.getRestriction();
+            query.where(current != null ? cb.and(current, afterCursor) : afterCursor);
+        }
+
+        query.select(cardSelection(root, cb));
+        query.orderBy(cb.desc(root.get("createDate")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<RankedCardView> findRankedCardsAfter(Specification<StoryEntity> spec,
+                                                     BiFunction<Root<StoryEntity>, CriteriaBuilder, Expression<Integer>> rank,
+                                                     CursorCodec.RankedCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RankedCardView> query = cb.createQuery(RankedCardView.class);
+        Root<StoryEntity> root = query.from(StoryEntity.class);
+
+        applySpecification(spec, root, query, cb);
+        Expression<Integer> rankExpression = rank.apply(root, cb);
+        if (cursor != null) {
+            Path<LocalDateTime> createDate = root.get("createDate");
+            Path<String> id = root.get("id");
+            // (rank, createDate, id) < (cursor.rank, cursor.time, cursor.id)
+            Predicate afterCursor = cb.or(
+                    cb.lessThan(rankExpression, cursor.rank()),
+                    cb.and(cb.equal(rankExpression, cursor.rank()), cb.or(
+                            cb.lessThan(createDate, cursor.time()),
+                            cb.and(cb.equal(createDate, cursor.time()), cb.lessThan(id, cursor.id())))));
+            Predicate current = query.getRestriction();
+            query.where(current != null ? cb.and(current, afterCursor) : afterCursor);
+        }
+
+        query.select(cb.construct(RankedCardView.class,
+                rankExpression,
+                root.get("id"),
+                root.get("title"),
+                root.get("author"),
+                root.get("coverImageUrl"),
+                root.get("coverThumbnailUrl"),
+                root.get("status"),
+                root.get("webView"),
+                root.get("createDate")));
+        query.orderBy(cb.desc(rankExpression), cb.desc(root.get("createDate")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private long count(Specification<StoryEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<StoryEntity> root = countQuery.from(StoryEntity.class);
+
+        applySpecification(spec, root, countQuery, cb);
+        countQuery.select(countQuery.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        // ORDER BY không có ý nghĩa (và không hợp lệ trên PostgreSQL) trong câu COUNT
+        countQuery.orderBy(Collections.emptyList());
+
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+
+    private void applySpecification(Specification<StoryEntity> spec, Root<StoryEntity> root,
+                                    CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private CompoundSelection<StoryCardView> cardSelection(Root<StoryEntity> root, CriteriaBuilder cb) {
+        return cb.construct(StoryCardView.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("author"),
+                root.get("coverImageUrl"),
+                root.get("coverThumbnailUrl"),
+                root.get("status"),
+                root.get("webView"),
+                root.get("createDate"));
+    }
+}
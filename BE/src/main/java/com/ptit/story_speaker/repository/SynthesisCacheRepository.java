@@ -0,0 +1,26 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.SynthesisCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SynthesisCacheRepository extends JpaRepository<SynthesisCacheEntity, String> {
+
+    // Nhiều instance có thể cùng tổng hợp một đoạn: bản ghi đầu tiên được giữ
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO SYNTHESIS_CACHE (CACHE_KEY, AUDIO_URL, VOICE_ID, LANGUAGE, TEXT_LENGTH, HIT_COUNT, CREATED_AT, LAST_HIT_AT) " +
+            "VALUES (:cacheKey, :audioUrl, :voiceId, :language, :textLength, 0, now(), now()) " +
+            "ON CONFLICT (CACHE_KEY) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("cacheKey") String cacheKey,
+                       @Param("audioUrl") String audioUrl,
+                       @Param("voiceId") String voiceId,
+                       @Param("language") String language,
+                       @Param("textLength") int textLength);
+}
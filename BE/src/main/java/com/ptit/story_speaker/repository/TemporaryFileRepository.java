@@ -1,10 +1,15 @@
 package com.ptit.story_speaker.repository;
 
 import com.ptit.story_speaker.domain.entity.TemporaryFileEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,5 +17,42 @@ public interface TemporaryFileRepository extends JpaRepository<TemporaryFileEnti
 
     List<TemporaryFileEntity> findByCreatedAtBefore(LocalDateTime expiryDate);
 
-    void deleteByFileUrl(String fileUrl);
+    boolean existsByFileUrl(String fileUrl);
+
+    boolean existsByFileUrlAndConfirmedTrue(String fileUrl);
+
+    @Modifying
+    @Query("UPDATE TemporaryFileEntity t SET t.confirmed = true WHERE t.fileUrl = :fileUrl")
+    int markConfirmed(@Param("fileUrl") String fileUrl);
+
+    @Modifying
+    @Query("DELETE FROM TemporaryFileEntity t WHERE t.fileUrl IN :fileUrls")
+    int deleteAllByFileUrlIn(@Param("fileUrls") Collection<String> fileUrls);
+
+    // Xác nhận ảnh đã dùng: mỗi dòng là một tham chiếu nên chỉ xóa một dòng cho mỗi URL, thuộc phiên upload của
+    // truyện (hoặc upload presigned không có phiên); tham chiếu của các lần trích xuất khác vẫn được giữ
+    @Modifying
+    @Query("DELETE FROM TemporaryFileEntity t WHERE t.id IN (" +
+            "SELECT MIN(t2.id) FROM TemporaryFileEntity t2 WHERE t2.fileUrl IN :fileUrls " +
+            "AND (t2.uploadSession = :uploadSession OR t2.uploadSession IS NULL) GROUP BY t2.fileUrl)")
+    int confirmOnePerUrl(@Param("uploadSession") String uploadSession, @Param("fileUrls") Collection<String> fileUrls);
+
+    // Request không mang phiên upload (client cũ): vẫn chỉ xóa một dòng cho mỗi URL
+    @Modifying
+    @Query("DELETE FROM TemporaryFileEntity t WHERE t.id IN (" +
+            "SELECT MIN(t2.id) FROM TemporaryFileEntity t2 WHERE t2.fileUrl IN :fileUrls GROUP BY t2.fileUrl)")
+    int confirmOnePerUrl(@Param("fileUrls") Collection<String> fileUrls);
+
+    // Keyset pagination theo (CREATED_AT, ID) - đi thẳng trên index, không OFFSET
+    @Query("SELECT t FROM TemporaryFileEntity t WHERE t.createdAt < :expiryDate " +
+            "AND (t.createdAt > :afterCreatedAt OR (t.createdAt = :afterCreatedAt AND t.id > :afterId)) " +
+            "ORDER BY t.createdAt, t.id")
+    List<TemporaryFileEntity> findExpiredChunk(@Param("expiryDate") LocalDateTime expiryDate,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") String afterId,
+                                               Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TemporaryFileEntity t WHERE t.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -1,6 +1,8 @@
 package com.ptit.story_speaker.repository;
 
 import com.ptit.story_speaker.domain.entity.UserStoryLibraryEntity;
+import com.ptit.story_speaker.domain.model.LibraryCardView;
+import com.ptit.story_speaker.domain.model.StoryCardView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -32,4 +35,62 @@ public interface UserStoryLibraryRepository extends JpaRepository<UserStoryLibra
     Optional<UserStoryLibraryEntity> findByUserIdAndStoryId(String id, String storyId);
 
     List<UserStoryLibraryEntity> findAllByStoryId(String storyId);
+
+    @Query(value = "SELECT new com.ptit.story_speaker.domain.model.StoryCardView(" +
+            "s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.lastSeen IS NOT NULL " +
+            "ORDER BY usl.lastSeen DESC",
+            countQuery = "SELECT COUNT(usl) FROM UserStoryLibraryEntity usl " +
+                    "WHERE usl.user.id = :userId AND usl.lastSeen IS NOT NULL")
+    Page<StoryCardView> findRecentlyReadCards(@Param("userId") String userId, Pageable pageable);
+
+    @Query(value = "SELECT new com.ptit.story_speaker.domain.model.StoryCardView(" +
+            "s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.isFavorite = true " +
+            "ORDER BY usl.lastUpdateDate DESC",
+            countQuery = "SELECT COUNT(usl) FROM UserStoryLibraryEntity usl " +
+                    "WHERE usl.user.id = :userId AND usl.isFavorite = true")
+    Page<StoryCardView> findFavoriteCards(@Param("userId") String userId, Pageable pageable);
+
+    // === Keyset pagination (không COUNT), dùng index (USER_ID, LAST_SEEN, ID) /
+    // IDX_USL_USER_FAVORITE_UPDATED_ID (partial, tạo trong DatabaseInitializer) ===
+
+    @Query("SELECT new com.ptit.story_speaker.domain.model.LibraryCardView(" +
+            "usl.id, usl.lastSeen, s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.lastSeen IS NOT NULL " +
+            "ORDER BY usl.lastSeen DESC, usl.id DESC")
+    List<LibraryCardView> findRecentlyReadFirst(@Param("userId") String userId, Pageable limit);
+
+    @Query("SELECT new com.ptit.story_speaker.domain.model.LibraryCardView(" +
+            "usl.id, usl.lastSeen, s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.lastSeen IS NOT NULL " +
+            "AND (usl.lastSeen < :cursorTime OR (usl.lastSeen = :cursorTime AND usl.id < :cursorId)) " +
+            "ORDER BY usl.lastSeen DESC, usl.id DESC")
+    List<LibraryCardView> findRecentlyReadAfter(@Param("userId") String userId,
+                                                @Param("cursorTime") LocalDateTime cursorTime,
+                                                @Param("cursorId") String cursorId,
+                                                Pageable limit);
+
+    @Query("SELECT new com.ptit.story_speaker.domain.model.LibraryCardView(" +
+            "usl.id, COALESCE(usl.lastUpdateDate, usl.createDate), s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.isFavorite = true " +
+            "ORDER BY COALESCE(usl.lastUpdateDate, usl.createDate) DESC, usl.id DESC")
+    List<LibraryCardView> findFavoritesFirst(@Param("userId") String userId, Pageable limit);
+
+    @Query("SELECT new com.ptit.story_speaker.domain.model.LibraryCardView(" +
+            "usl.id, COALESCE(usl.lastUpdateDate, usl.createDate), s.id, s.title, s.author, s.coverImageUrl, s.coverThumbnailUrl, s.status, s.webView, s.createDate) " +
+            "FROM UserStoryLibraryEntity usl JOIN usl.story s " +
+            "WHERE usl.user.id = :userId AND usl.isFavorite = true " +
+            "AND (COALESCE(usl.lastUpdateDate, usl.createDate) < :cursorTime " +
+            "OR (COALESCE(usl.lastUpdateDate, usl.createDate) = :cursorTime AND usl.id < :cursorId)) " +
+            "ORDER BY COALESCE(usl.lastUpdateDate, usl.createDate) DESC, usl.id DESC")
+    List<LibraryCardView> findFavoritesAfter(@Param("userId") String userId,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") String cursorId,
+                                             Pageable limit);
 }
@@ -0,0 +1,26 @@
+package com.ptit.story_speaker.repository;
+
+import com.ptit.story_speaker.domain.entity.VoiceTrainingJobEntity;
+import com.ptit.story_speaker.domain.model.enums.VoiceTrainingStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface VoiceTrainingJobRepository extends JpaRepository<VoiceTrainingJobEntity, String> {
+
+    // File audio tạm của job đang dở đã mất khi server dừng, job không thể chạy tiếp
+    @Modifying
+    @Transactional
+    @Query("UPDATE VoiceTrainingJobEntity j SET j.status = com.ptit.story_speaker.domain.model.enums.VoiceTrainingStatus.FAILED, " +
+            "j.errorMessage = :errorMessage, j.finishedAt = :now WHERE j.status IN :statuses")
+    int failJobsInStatus(@Param("statuses") Collection<VoiceTrainingStatus> statuses,
+                         @Param("errorMessage") String errorMessage,
+                         @Param("now") LocalDateTime now);
+}
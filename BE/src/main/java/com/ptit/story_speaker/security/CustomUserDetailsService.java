@@ -1,43 +1,77 @@
 package com.ptit.story_speaker.security;
 
-import com.ptit.story_speaker.domain.entity.UserEntity; // Thêm import này
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ptit.story_speaker.domain.entity.UserEntity;
+import com.ptit.story_speaker.domain.model.enums.LoginType;
+import com.ptit.story_speaker.domain.model.enums.Role;
 import com.ptit.story_speaker.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.time.Duration;
 
+/**
+ * Load principal theo userId (subject của JWT).
+ * Principal được cache có TTL để request đã xác thực không phải query bảng USERS mỗi lần.
+ * Cache giữ snapshot bất biến (không có password), mỗi request nhận một UserEntity mới dựng từ snapshot
+ * nên không request nào sửa được principal của request khác. UserEntity bị update/xóa sẽ tự evict
+ * qua {@link UserPrincipalEvictionListener}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, PrincipalSnapshot> principalCache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                                    @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
-        // 1. Khai báo tường minh UserEntity để trình biên dịch hiểu rõ kiểu dữ liệu
+        return principalCache.get(userId, this::loadSnapshot).toUserEntity();
+    }
+
+    private PrincipalSnapshot loadSnapshot(String userId) {
         UserEntity userEntity = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy user với ID: " + userId));
+        log.debug("Loaded principal {} with role {}", userId, userEntity.getRole());
+        return PrincipalSnapshot.of(userEntity);
+    }
+
+    public void evictUser(String userId) {
+        principalCache.invalidate(userId);
+    }
+
+    private record PrincipalSnapshot(String id, Role role, String name, String email,
+                                     String socialUserId, LoginType loginType) {
+
+        static PrincipalSnapshot of(UserEntity user) {
+            return new PrincipalSnapshot(user.getId(), user.getRole(), user.getName(), user.getEmail(),
+                    user.getSocialUserId(), user.getLoginType());
+        }
 
-        // --- DEBUG: KIỂM TRA CLASS THỰC TẾ ---
-        log.info("========================================");
-        log.info("Đang load User ID: {}", userId);
-        log.info("Class của đối tượng: {}", userEntity.getClass().getName());
-        log.info("Có phải là instance của UserDetails không? -> {}", (userEntity instanceof UserDetails));
-        log.info("Các Interface mà class này thực thi: {}", Arrays.toString(userEntity.getClass().getInterfaces()));
-        log.info("========================================");
-        // -------------------------------------
-
-        log.info("User ID: {}", userId);
-        log.info("Role trong entity: {}", userEntity.getRole());
-        log.info("Authorities trả về: {}", userEntity.getAuthorities());
-
-        // 2. Trả về (Java sẽ tự động upcasting từ UserEntity -> UserDetails)
-        return userEntity;
+        UserEntity toUserEntity() {
+            UserEntity user = new UserEntity();
+            user.setId(id);
+            user.setRole(role);
+            user.setName(name);
+            user.setEmail(email);
+            user.setSocialUserId(socialUserId);
+            user.setLoginType(loginType);
+            return user;
+        }
     }
 }
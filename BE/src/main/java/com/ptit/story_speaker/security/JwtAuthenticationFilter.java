@@ -1,5 +1,6 @@
 package com.ptit.story_speaker.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,30 +32,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            // Thêm log để debug xem Filter có chạy không
-            log.info("JwtAuthenticationFilter is running for URL: {}", request.getRequestURI());
+            // Verify và lấy claims trong một lần parse
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.resolveClaims(jwt) : null;
+            if (claims != null) {
+                String userId = claims.getSubject();
 
-            if (StringUtils.hasText(jwt)) {
-                log.info("JWT found in header: {}", jwt); // Cẩn thận lộ token ở môi trường prod
+                // Principal lấy từ cache TTL, không query USERS mỗi request
+                UserDetails userDetails = customUserDetailsService.loadUserByUsername(userId);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                if (tokenProvider.validateToken(jwt)) {
-                    String userId = tokenProvider.getUserIdFromJWT(jwt);
-                    log.info("JWT is valid. User ID: {}", userId);
-
-                    UserDetails userDetails = customUserDetailsService.loadUserByUsername(userId);
-                    if (userDetails != null) {
-                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.info("User authenticated: {}", userId);
-                    }
-                } else {
-                    log.error("JWT validation failed");
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
-            } else {
-                log.warn("No JWT found in request header");
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -1,13 +1,21 @@
 package com.ptit.story_speaker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -16,13 +24,41 @@ public class JwtTokenProvider {
     private final Key key;
     private final long expirationMs;
     private final long refreshExpirationMs;
+    // JwtParser immutable, thread-safe: dựng một lần thay vì mỗi lần verify
+    private final JwtParser jwtParser;
+    // Token đã verify, key là SHA-256 của token, hết hạn cùng lúc với token
+    private final Cache<String, Claims> verifiedTokens;
 
     public JwtTokenProvider(@Value("${jwt.secret}") String secret,
                             @Value("${jwt.expiration-ms}") long expirationMs,
-                            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs) {
+                            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs,
+                            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationMs = expirationMs;
         this.refreshExpirationMs = refreshExpirationMs;
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration() != null
+                                ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                                : expirationMs;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String createToken(String userId) {
@@ -49,20 +85,27 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
+    /**
+     * Verify chữ ký + hạn dùng và trả claims trong một lần parse; token không hợp lệ trả về null.
+     * Token đã verify được cache đến khi hết hạn nên request lặp lại chỉ tốn một lần băm SHA-256.
+     */
+    public Claims resolveClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String tokenHash = sha256(token);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(tokenHash);
+        }
 
-    public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(tokenHash, claims);
+            return claims;
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -71,10 +114,31 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty: {}", ex.getMessage());
-        } catch (SecurityException ex) {
+        } catch (JwtException ex) {
             log.error("JWT signature validation failed: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUserIdFromJWT(String token) {
+        Claims claims = resolveClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims.getSubject();
+    }
+
+    public boolean validateToken(String authToken) {
+        return resolveClaims(authToken) != null;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public long getRefreshExpirationMs() {
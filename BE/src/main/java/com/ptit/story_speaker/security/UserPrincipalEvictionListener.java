@@ -0,0 +1,26 @@
+package com.ptit.story_speaker.security;
+
+import com.ptit.story_speaker.domain.entity.UserEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evict principal đã cache khi user bị sửa (role, thông tin) hoặc bị xóa, bất kể đi qua service nào.
+ * Hibernate lấy listener này từ Spring container; dùng ObjectProvider để tránh vòng phụ thuộc
+ * EntityManagerFactory -> listener -> CustomUserDetailsService -> UserRepository.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalEvictionListener {
+
+    private final ObjectProvider<CustomUserDetailsService> customUserDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    void evict(UserEntity user) {
+        customUserDetailsService.ifAvailable(service -> service.evictUser(user.getId()));
+    }
+}
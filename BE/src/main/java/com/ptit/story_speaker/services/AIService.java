@@ -2,15 +2,15 @@ package com.ptit.story_speaker.services;
 
 import com.ptit.story_speaker.domain.dto.request.StoryGenerationRequest;
 import com.ptit.story_speaker.domain.dto.request.VoiceGenerationRequest;
-import com.ptit.story_speaker.domain.dto.request.VoiceTrainRequest;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
 import com.ptit.story_speaker.domain.dto.response.VoiceResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 public interface AIService {
     StoryResponse generateStory(StoryGenerationRequest userPrompt);
+    SseEmitter streamStory(StoryGenerationRequest request);
     String generateVoice(VoiceGenerationRequest request);
-    VoiceResponse trainModel(VoiceTrainRequest request);
     List<VoiceResponse> getMyVoices();
 }
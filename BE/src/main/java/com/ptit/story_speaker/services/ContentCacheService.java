@@ -0,0 +1,17 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public interface ContentCacheService {
+    StoryResponse getStory(String storyId, LocalDateTime version, Supplier<StoryResponse> loader);
+    ChapterResponse getChapter(String chapterId, Supplier<ChapterResponse> loader);
+    List<String> getChapterBlocks(String chapterId, Supplier<ChapterResponse> loader);
+    void evictStory(String storyId);
+    Map<String, Map<String, Long>> getStats();
+}
@@ -2,10 +2,14 @@ package com.ptit.story_speaker.services;
 
 import com.ptit.story_speaker.domain.dto.response.ChapterExtractionResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
+import com.ptit.story_speaker.domain.model.ImportProgress;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
 
 public interface EpubService {
     StoryExtractionResponse extractStoryFromEpub(MultipartFile epubFile) throws IOException;
+    StoryExtractionResponse extractStoryFromEpub(Path epubPath, Consumer<ImportProgress> progressListener) throws IOException;
 }
@@ -0,0 +1,5 @@
+package com.ptit.story_speaker.services;
+
+public interface ImageDerivativeService {
+    void generateCoverThumbnails(String coverImageUrl);
+}
@@ -0,0 +1,13 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.response.ImportJobResponse;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+public interface ImportJobService {
+    ImportJobResponse submitEpubImport(MultipartFile file) throws IOException;
+    ImportJobResponse getJob(String jobId);
+    SseEmitter subscribe(String jobId);
+}
@@ -1,8 +1,21 @@
 package com.ptit.story_speaker.services;
 
+import com.ptit.story_speaker.domain.model.StoredObject;
+import com.ptit.story_speaker.domain.model.UploadResult;
+
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
 
 public interface MinioService {
     String uploadFile(InputStream inputStream, String fileName, String contentType);
+    UploadResult uploadStream(InputStream inputStream, String objectName, String contentType);
     void removeFile(String fileUrl);
+    Set<String> removeFiles(Collection<String> fileUrls);
+    InputStream downloadFile(String fileUrl);
+    boolean fileExists(String fileUrl);
+    String getObjectName(String fileUrl);
+    String getFileUrl(String objectName);
+    String createPresignedUploadUrl(String objectName, int expirySeconds);
+    StoredObject statFile(String objectName);
 }
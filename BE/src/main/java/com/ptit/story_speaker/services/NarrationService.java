@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.request.NarrationRequest;
+import com.ptit.story_speaker.domain.dto.response.NarrationManifestResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NarrationService {
+    NarrationManifestResponse requestNarration(NarrationRequest request);
+    NarrationManifestResponse getManifest(String manifestId);
+    SseEmitter subscribe(String manifestId);
+}
@@ -0,0 +1,6 @@
+package com.ptit.story_speaker.services;
+
+public interface ReadingHistoryService {
+    void recordView(String userId, String storyId);
+    void flush();
+}
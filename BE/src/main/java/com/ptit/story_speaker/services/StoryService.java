@@ -2,29 +2,40 @@ package com.ptit.story_speaker.services;
 
 import com.ptit.story_speaker.domain.dto.request.*;
 import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.CursorPageResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryCardResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.domain.model.ChapterContentSegment;
+import com.ptit.story_speaker.domain.model.ContentVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 
 public interface StoryService {
     StoryResponse createStory(StoryCreationRequest request);
     StoryResponse updateStory(String id, StoryUpdateRequest request);
     StoryResponse saveExtractedStory(StorySaveRequest request);
-    StoryResponse importEpub(MultipartFile file) throws IOException;
+    StoryResponse saveImportedStory(StoryExtractionResponse extracted);
     Page<StoryCardResponse> getStoriesForAdmin(String createdByRole, Pageable pageable);
     Page<StoryCardResponse> getStoriesForUser(Pageable pageable);
+    CursorPageResponse<StoryCardResponse> getStoriesForUserByCursor(String cursor, int size);
     Page<StoryCardResponse> searchStories(StorySearchRequest request, Pageable pageable);
+    CursorPageResponse<StoryCardResponse> searchStoriesByCursor(StorySearchRequest request, String cursor, int size);
     Page<StoryCardResponse> searchStoriesForAdmin(AdminStorySearchRequest request, Pageable pageable);
     Page<StoryCardResponse> getRecentlyReadStories(Pageable pageable);
+    CursorPageResponse<StoryCardResponse> getRecentlyReadStoriesByCursor(String cursor, int size);
     Page<StoryCardResponse> getFavoriteStories(Pageable pageable);
+    CursorPageResponse<StoryCardResponse> getFavoriteStoriesByCursor(String cursor, int size);
     Page<StoryCardResponse> getUserLibrary(Pageable pageable);
-    StoryResponse getStoryById(String id);
+    boolean isFavoriteStory(String storyId);
+    StoryResponse getStoryById(String id, ContentVersion version, boolean isFavorite);
+    ContentVersion getStoryVersion(String id, boolean isFavorite);
     ChapterResponse getChapterById(String id);
+    ContentVersion getChapterVersion(String id);
+    String getChapterContent(String id);
+    ChapterContentSegment getChapterContentSegment(String id, int segment, int segmentSize);
     void favoriteStory(String storyId);
     void deleteStory(String storyId);
     void toggleWebView(String storyId);
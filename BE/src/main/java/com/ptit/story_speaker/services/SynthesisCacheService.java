@@ -0,0 +1,7 @@
+package com.ptit.story_speaker.services;
+
+import java.util.function.Supplier;
+
+public interface SynthesisCacheService {
+    String getOrSynthesize(String text, String voiceId, String language, Supplier<String> synthesizer);
+}
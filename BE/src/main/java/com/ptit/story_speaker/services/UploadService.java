@@ -0,0 +1,12 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.request.PresignedUploadRequest;
+import com.ptit.story_speaker.domain.dto.request.UploadConfirmRequest;
+import com.ptit.story_speaker.domain.dto.response.PresignedUploadResponse;
+import com.ptit.story_speaker.domain.dto.response.UploadConfirmResponse;
+
+public interface UploadService {
+    PresignedUploadResponse createPresignedUpload(PresignedUploadRequest request);
+    UploadConfirmResponse confirmUpload(UploadConfirmRequest request);
+    void requireConfirmedUpload(String fileUrl);
+}
@@ -0,0 +1,11 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.request.TextToSpeechRequest;
+import com.ptit.story_speaker.domain.dto.response.TextToSpeechResponse;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainResponse;
+import org.springframework.util.MultiValueMap;
+
+public interface VoiceServiceClient {
+    TextToSpeechResponse synthesize(TextToSpeechRequest request);
+    VoiceTrainResponse train(MultiValueMap<String, Object> body);
+}
@@ -0,0 +1,13 @@
+package com.ptit.story_speaker.services;
+
+import com.ptit.story_speaker.domain.dto.request.VoiceTrainRequest;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainingJobResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+public interface VoiceTrainingJobService {
+    VoiceTrainingJobResponse submitTraining(VoiceTrainRequest request) throws IOException;
+    VoiceTrainingJobResponse getJob(String jobId);
+    SseEmitter subscribe(String jobId);
+}
@@ -1,59 +1,131 @@
 package com.ptit.story_speaker.services.impl;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ptit.story_speaker.common.exceptions.AppException;
 import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.StreamingJsonFieldParser;
 import com.ptit.story_speaker.domain.dto.request.CharacterInput;
 import com.ptit.story_speaker.domain.dto.request.StoryGenerationRequest;
+import com.ptit.story_speaker.domain.dto.request.TextToSpeechRequest;
 import com.ptit.story_speaker.domain.dto.request.VoiceGenerationRequest;
-import com.ptit.story_speaker.domain.dto.request.VoiceTrainRequest;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.domain.dto.response.TextToSpeechResponse;
 import com.ptit.story_speaker.domain.dto.response.VoiceResponse;
-import com.ptit.story_speaker.domain.dto.response.VoiceTrainResponse;
 import com.ptit.story_speaker.domain.entity.*;
+import com.ptit.story_speaker.domain.mapper.ChapterMapper;
 import com.ptit.story_speaker.domain.mapper.StoryMapper;
 import com.ptit.story_speaker.domain.mapper.VoiceMapper;
 import com.ptit.story_speaker.domain.model.enums.StoryStatus;
 import com.ptit.story_speaker.repository.*;
 import com.ptit.story_speaker.services.AIService;
-import lombok.AllArgsConstructor;
+import com.ptit.story_speaker.services.SynthesisCacheService;
+import com.ptit.story_speaker.services.VoiceServiceClient;
 import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.MediaType;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestClient;
-
-import java.time.LocalDateTime;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AIServiceImpl implements AIService {
 
+    private static final String STORY_DELTA_EVENT = "delta";
+    private static final String STORY_COMPLETED_EVENT = "completed";
+    private static final String STORY_ERROR_EVENT = "error";
+    // Các trường được đẩy dần cho client khi stream
+    private static final Set<String> STREAMED_STORY_FIELDS = Set.of(
+            "meta.title", "meta.description", "story.beginning", "story.middle", "story.end");
+
+    private static final String STORY_SYSTEM_PROMPT = "SYSTEM: Bạn là một trợ lý viết truyện dành cho trẻ em (story-speaker). \n" +
+            "Quy tắc nghiêm ngặt:\n" +
+            "1. Nội dung phải an toàn cho trẻ em: không bạo lực, không nội dung người lớn, không ngôn từ tục tĩu.\n" +
+            "2. Luôn tuân thủ field `readingLevel` khi lựa chọn từ vựng và câu.\n" +
+            "3. Trả story có ~{words_needed} từ (±10%). Nếu durationSeconds=300 thì ~600 từ. Phân bố: beginning ≈ 20% (120 words), middle ≈ 60% (360 words), end ≈ 20% (120 words). Nếu model trả ngắn hơn, hãy BỔ SUNG nhiều đoạn miêu tả, đối thoại, chi tiết cảm xúc và âm thanh cho đến đạt số từ.\n" +
+            "4. Nếu user không cung cấp một field (ví dụ genre), hãy chọn default an toàn (genre: \"bedtime\", readingLevel: \"6-8\", tone: \"gentle\").\n" +
+            "5. Trả RA MỘT ĐỐI TƯỢNG JSON duy nhất theo schema dưới đây, và KHÔNG đưa thêm giải thích:\n" +
+            "   {\n" +
+            "     \"meta\": {\n" +
+            "       \"title\": \"<string>\",\n" +
+            "       \"description\": \"<string>\",\n" +
+            "       \"durationSeconds\": <int>,\n" +
+            "       \"genre\": \"<string>\",\n" +
+            "       \"readingLevel\": \"<string>\",\n" +
+            "       \"tone\": \"<string>\"\n" +
+            "     },\n" +
+            "     \"characters\": [\n" +
+            "       {\"name\":\"<string>\",\"role\":\"<string>\",\"shortDescription\":\"<string>\"}\n" +
+            "     ],\n" +
+            "     \"story\": {\n" +
+            "       \"beginning\":\"<string>\",\n" +
+            "       \"middle\":\"<string>\",\n" +
+            "       \"end\":\"<string>\"\n" +
+            "     },\n" +
+            "     \"safety\": {\n" +
+            "       \"safetyVerdict\":\"<OK|NOT_OK>\",\n" +
+            "       \"reasons\":\"<string>\"\n" +
+            "     }\n" +
+            "   }\n" +
+            "6. Nếu nội dung không an toàn, `safetyVerdict` phải là NOT_OK và `reasons` mô tả ngắn." +
+            "USER:\n" +
+            "Title: <title or leave blank>\n" +
+            "Language: <language>\n" +
+            "DurationSeconds: <durationSeconds>\n" +
+            "ReadingLevel: <readingLevel>\n" +
+            "Genre: <genre>\n" +
+            "Tone: <tone>\n" +
+            "Characters:\n" +
+            " - <char1> (mô tả)\n" +
+            " - <char2> (mô tả)\n" +
+            "KeyMessages:\n" +
+            " - <msg1>\n" +
+            "AdditionalInstructions: <additionalInstructions>\n" +
+            "FreeText: <freeText>";
+
     private final ChatClient.Builder chatClientBuilder;
-    private final RestClient.Builder restClientBuilder;
+    private final VoiceServiceClient voiceServiceClient;
     private final StoryRepository storyRepository;
     private final ChapterRepository chapterRepository;
     private final StoryMapper storyMapper;
+    private final ChapterMapper chapterMapper;
     private final UserRepository userRepository;
     private final VoiceRepository voiceRepository;
     private final ObjectMapper objectMapper;
     private final VoiceMapper voiceMapper;
-    private final TemporaryFileRepository temporaryFileRepository;
+    private final SynthesisCacheService synthesisCacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${story.generation.sse-timeout-ms:300000}")
+    private long storyStreamTimeoutMs;
+
+    /**
+     * Nhận kết quả của việc sinh truyện dạng stream.
+     */
+    interface StoryStreamListener {
+        void onText(String field, String text);
+        void onCompleted(StoryResponse story);
+        void onError(Throwable error);
+    }
 
     // DTO for parsing AI response
     @Data
@@ -79,56 +151,11 @@ public class AIServiceImpl implements AIService {
     @Override
     @Transactional
     public StoryResponse generateStory(StoryGenerationRequest req) {
-        String systemPrompt = "SYSTEM: Bạn là một trợ lý viết truyện dành cho trẻ em (story-speaker). \n" +
-                "Quy tắc nghiêm ngặt:\n" +
-                "1. Nội dung phải an toàn cho trẻ em: không bạo lực, không nội dung người lớn, không ngôn từ tục tĩu.\n" +
-                "2. Luôn tuân thủ field `readingLevel` khi lựa chọn từ vựng và câu.\n" +
-                "3. Trả story có ~{words_needed} từ (±10%). Nếu durationSeconds=300 thì ~600 từ. Phân bố: beginning ≈ 20% (120 words), middle ≈ 60% (360 words), end ≈ 20% (120 words). Nếu model trả ngắn hơn, hãy BỔ SUNG nhiều đoạn miêu tả, đối thoại, chi tiết cảm xúc và âm thanh cho đến đạt số từ.\n" +
-                "4. Nếu user không cung cấp một field (ví dụ genre), hãy chọn default an toàn (genre: \"bedtime\", readingLevel: \"6-8\", tone: \"gentle\").\n" +
-                "5. Trả RA MỘT ĐỐI TƯỢNG JSON duy nhất theo schema dưới đây, và KHÔNG đưa thêm giải thích:\n" +
-                "   {\n" +
-                "     \"meta\": {\n" +
-                "       \"title\": \"<string>\",\n" +
-                "       \"description\": \"<string>\",\n" +
-                "       \"durationSeconds\": <int>,\n" +
-                "       \"genre\": \"<string>\",\n" +
-                "       \"readingLevel\": \"<string>\",\n" +
-                "       \"tone\": \"<string>\"\n" +
-                "     },\n" +
-                "     \"characters\": [\n" +
-                "       {\"name\":\"<string>\",\"role\":\"<string>\",\"shortDescription\":\"<string>\"}\n" +
-                "     ],\n" +
-                "     \"story\": {\n" +
-                "       \"beginning\":\"<string>\",\n" +
-                "       \"middle\":\"<string>\",\n" +
-                "       \"end\":\"<string>\"\n" +
-                "     },\n" +
-                "     \"safety\": {\n" +
-                "       \"safetyVerdict\":\"<OK|NOT_OK>\",\n" +
-                "       \"reasons\":\"<string>\"\n" +
-                "     }\n" +
-                "   }\n" +
-                "6. Nếu nội dung không an toàn, `safetyVerdict` phải là NOT_OK và `reasons` mô tả ngắn." +
-                "USER:\n" +
-                "Title: <title or leave blank>\n" +
-                "Language: <language>\n" +
-                "DurationSeconds: <durationSeconds>\n" +
-                "ReadingLevel: <readingLevel>\n" +
-                "Genre: <genre>\n" +
-                "Tone: <tone>\n" +
-                "Characters:\n" +
-                " - <char1> (mô tả)\n" +
-                " - <char2> (mô tả)\n" +
-                "KeyMessages:\n" +
-                " - <msg1>\n" +
-                "AdditionalInstructions: <additionalInstructions>\n" +
-                "FreeText: <freeText>";
-
         String userPrompt = buildPromptFromRequest(req);
 
         ChatClient chatClient = chatClientBuilder.build();
         String rawJsonResponse = chatClient.prompt()
-                .system(systemPrompt)
+                .system(STORY_SYSTEM_PROMPT)
                 .user(userPrompt)
                 .call()
                 .content();
@@ -143,12 +170,92 @@ public class AIServiceImpl implements AIService {
             throw new RuntimeException("Failed to parse AI response", e);
         }
 
+        return saveGeneratedStory(getCurrentUser(), aiResponse.getMeta().getTitle(), aiResponse.getMeta().getDescription(),
+                aiResponse.getStory().getBeginning(), aiResponse.getStory().getMiddle(), aiResponse.getStory().getEnd());
+    }
+
+    @Override
+    public SseEmitter streamStory(StoryGenerationRequest req) {
         UserEntity uploader = getCurrentUser();
+        SseEmitter emitter = new SseEmitter(storyStreamTimeoutMs);
+        Disposable subscription = streamStory(req, uploader, new StoryStreamListener() {
+            @Override
+            public void onText(String field, String text) {
+                send(STORY_DELTA_EVENT, Map.of("field", field, "text", text));
+            }
+
+            @Override
+            public void onCompleted(StoryResponse story) {
+                send(STORY_COMPLETED_EVENT, story);
+                emitter.complete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                try {
+                    String message = error instanceof AppException ? error.getMessage() : "Không thể tạo truyện";
+                    emitter.send(SseEmitter.event().name(STORY_ERROR_EVENT).data(Map.of("message", message)));
+                    emitter.complete();
+                } catch (Exception e) {
+                    emitter.completeWithError(error);
+                }
+            }
+
+            private void send(String eventName, Object data) {
+                try {
+                    emitter.send(SseEmitter.event().name(eventName).data(data));
+                } catch (IOException e) {
+                    // Client đã ngắt kết nối: lỗi lan lên Flux và hủy việc sinh truyện
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        // Request kết thúc theo bất kỳ cách nào (client ngắt, hết thời gian, lỗi): hủy stream tới model,
+        // không tốn thêm token và không lưu truyện dở. Dispose sau khi Flux đã xong thì không có tác dụng
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return emitter;
+    }
+
+    /**
+     * Sinh truyện bằng ChatClient stream: phần văn bản của meta/story được parse dần và đẩy cho listener
+     * ngay khi model trả về, truyện chỉ được lưu khi stream kết thúc với JSON đầy đủ.
+     */
+    Disposable streamStory(StoryGenerationRequest req, UserEntity uploader, StoryStreamListener listener) {
+        StreamingJsonFieldParser parser = new StreamingJsonFieldParser(STREAMED_STORY_FIELDS, listener::onText);
+        return chatClientBuilder.build()
+                .prompt()
+                .system(STORY_SYSTEM_PROMPT)
+                .user(buildPromptFromRequest(req))
+                .stream()
+                .content()
+                // Gửi SSE và ghi DB là thao tác blocking, không chạy trên thread của HTTP client
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(parser::feed)
+                .then(Mono.fromCallable(() -> transactionTemplate.execute(status -> saveStreamedStory(parser, uploader))))
+                .subscribe(listener::onCompleted, error -> {
+                    log.warn("Story stream failed: {}", error.getMessage());
+                    listener.onError(error);
+                });
+    }
+
+    private StoryResponse saveStreamedStory(StreamingJsonFieldParser parser, UserEntity uploader) {
+        String title = parser.getValue("meta.title");
+        if (!parser.isComplete() || title == null || parser.getValue("story.beginning") == null) {
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Failed to parse AI response");
+        }
+        return saveGeneratedStory(uploader, title, parser.getValue("meta.description"), parser.getValue("story.beginning"),
+                Optional.ofNullable(parser.getValue("story.middle")).orElse(""),
+                Optional.ofNullable(parser.getValue("story.end")).orElse(""));
+    }
 
+    private StoryResponse saveGeneratedStory(UserEntity uploader, String title, String description,
+                                             String beginning, String middle, String end) {
         // Create and save StoryEntity
         StoryEntity newStory = new StoryEntity();
-        newStory.setTitle(aiResponse.getMeta().getTitle());
-        newStory.setDescription(aiResponse.getMeta().getDescription());
+        newStory.setTitle(title);
+        newStory.setDescription(description);
         newStory.setAuthor("AI Generated");
         newStory.setStatus(StoryStatus.DRAFT);
         newStory.setUploader(uploader);
@@ -160,120 +267,31 @@ public class AIServiceImpl implements AIService {
         chapter.setStory(savedStory);
         chapter.setChapterNumber(1);
         chapter.setTitle(savedStory.getTitle()); // Use story title for the first chapter
+        chapter.setContent(beginning + "\n\n" + middle + "\n\n" + end);
+        ChapterEntity savedChapter = chapterRepository.save(chapter);
 
-        String fullContent = aiResponse.getStory().getBeginning() + "\n\n" +
-                aiResponse.getStory().getMiddle() + "\n\n" +
-                aiResponse.getStory().getEnd();
-        chapter.setContent(fullContent);
-        chapterRepository.save(chapter);
-
-        // Return the full story response
-        return storyMapper.toStoryResponse(savedStory);
-    }
-
-    @Data
-    @AllArgsConstructor
-    @NoArgsConstructor
-    public static class TextToSpeechRequest {
-        private String text;
-        @JsonProperty("model_id")
-        private String modelId;
-        private String locate;
-    }
-
-    @Data
-    @AllArgsConstructor
-    @NoArgsConstructor
-    public static class TextToSpeechResponse {
-        private String message;
-        @JsonProperty("url")
-        private String audioPath;
+        // Return the story response with its table of contents
+        StoryResponse response = storyMapper.toStoryResponse(savedStory);
+        response.setChapters(List.of(chapterMapper.toSummaryResponse(savedChapter)));
+        return response;
     }
 
     @Override
     public String generateVoice(VoiceGenerationRequest request) {
-        var ttsRequest = new TextToSpeechRequest(request.getText(), request.getVoiceId(), request.getLanguage());
-
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000);
-        factory.setReadTimeout(600000);
-
-        TextToSpeechResponse response = restClientBuilder
-                .requestFactory(factory)
-                .build()
-                .post()
-                .uri("http://localhost:8000/text-to-speech-and-infer/")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(ttsRequest)
-                .retrieve()
-                .body(TextToSpeechResponse.class);
-
-        if (response != null && response.getAudioPath() != null) {
-            // Save the generated audio URL to temporary files for cleanup
-            TemporaryFileEntity tempFile = TemporaryFileEntity.builder()
-                    .fileUrl(response.getAudioPath())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            temporaryFileRepository.save(tempFile);
-            
-            return response.getAudioPath();
+        if (request.getText() == null || request.getText().isBlank()) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Văn bản cần đọc không được để trống");
         }
-        return null;
+        // Cùng đoạn văn + giọng + ngôn ngữ thì dùng lại audio đã tổng hợp
+        return synthesisCacheService.getOrSynthesize(request.getText(), request.getVoiceId(), request.getLanguage(),
+                () -> synthesizeVoice(request));
     }
 
-    @Override
-    public VoiceResponse trainModel(VoiceTrainRequest request) {
-        UserEntity uploader = getCurrentUser();
-
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        try {
-            if (request.getFile() != null && !request.getFile().isEmpty()) {
-                ByteArrayResource fileResource = new ByteArrayResource(request.getFile().getBytes()) {
-                    @Override
-                    public String getFilename() {
-                        return request.getFile().getOriginalFilename();
-                    }
-                };
-                body.add("file", fileResource);
-            } else {
-                throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "File is required for training.");
-            }
-
-            body.add("name", request.getName());
-            body.add("f0_method", request.getF0Method());
-            body.add("epochs_number", request.getEpochsNumber());
-            body.add("user_id", uploader.getId());
-            body.add("trainAt", request.getTrainAt());
-
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Error reading uploaded file", e);
-        }
+    private String synthesizeVoice(VoiceGenerationRequest request) {
+        var ttsRequest = new TextToSpeechRequest(request.getText(), request.getVoiceId(), request.getLanguage());
+        TextToSpeechResponse response = voiceServiceClient.synthesize(ttsRequest);
 
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000);
-        factory.setReadTimeout(1200000);
-
-        VoiceTrainResponse response = restClientBuilder
-                .requestFactory(factory)
-                .build()
-                .post()
-                .uri("http://localhost:8000/train-model/")
-                .contentType(MediaType.MULTIPART_FORM_DATA)
-                .body(body)
-                .retrieve()
-                .body(VoiceTrainResponse.class);
-
-        if (response != null) {
-            VoiceEntity voiceEntity = new VoiceEntity();
-            voiceEntity.setName(request.getName());
-            voiceEntity.setModelPath(response.getPath());
-            voiceEntity.setModelId(response.getModel_id());
-            voiceEntity.setUploader(uploader);
-            VoiceEntity savedEntity = voiceRepository.save(voiceEntity);
-            return voiceMapper.toVoiceResponse(savedEntity);
-        } else {
-            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Failed to train model or parse response");
-        }
+        // Audio được giữ lâu dài trong SYNTHESIS_CACHE, không đăng ký vào TEMPORARY_FILES
+        return response != null ? response.getAudioPath() : null;
     }
 
     @Override
@@ -18,6 +18,7 @@ import com.ptit.story_speaker.domain.entity.UserEntity;
 import com.ptit.story_speaker.domain.model.enums.LoginType;
 import com.ptit.story_speaker.domain.model.enums.Role;
 import com.ptit.story_speaker.repository.UserRepository;
+import com.ptit.story_speaker.security.CustomUserDetailsService;
 import com.ptit.story_speaker.security.JwtTokenProvider;
 import com.ptit.story_speaker.services.AuthenticationService;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final JwtTokenProvider jwtTokenProvider;
     private final PasswordEncoder passwordEncoder;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomUserDetailsService customUserDetailsService;
 
     @Value("${google.client-id}")
     private String googleClientId;
@@ -54,6 +56,12 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return null;
     }
 
+    private String createAccessToken(UserEntity user) {
+        // Token mới dùng principal mới nhất (role có thể đã bị sửa thẳng trong DB)
+        customUserDetailsService.evictUser(user.getId());
+        return jwtTokenProvider.createToken(user.getId());
+    }
+
     private String createAndSaveRefreshToken(UserEntity user) {
 
         String newToken = jwtTokenProvider.createRefreshToken(user.getId());
@@ -96,7 +104,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                     return userRepository.save(newUser);
                 });
 
-        String accessToken = jwtTokenProvider.createToken(userEntity.getId());
+        String accessToken = createAccessToken(userEntity);
         String refreshToken = createAndSaveRefreshToken(userEntity);
         return AuthenticationResponse.builder()
                 .accessToken(accessToken)
@@ -119,7 +127,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             throw new AppException(ErrorCode.NOT_ADMIN_ACCOUNT);
         }
 
-        String accessToken = jwtTokenProvider.createToken(user.getId());
+        String accessToken = createAccessToken(user);
         String refreshToken = createAndSaveRefreshToken(user);
 
         return AuthenticationResponse.builder()
@@ -147,7 +155,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
         UserEntity user = tokenInDb.getUser();
 
-        String newAccessToken = jwtTokenProvider.createToken(user.getId());
+        String newAccessToken = createAccessToken(user);
         String newRefreshToken = jwtTokenProvider.createRefreshToken(user.getId());
 
         tokenInDb.setToken(newRefreshToken);
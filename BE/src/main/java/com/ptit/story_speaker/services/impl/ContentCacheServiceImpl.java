@@ -0,0 +1,193 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ptit.story_speaker.common.utils.HtmlBlockSplitter;
+import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.services.ContentCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache trong tiến trình cho StoryResponse/ChapterResponse đã map sẵn.
+ * Giá trị cache là phần dùng chung cho mọi user (isFavorite luôn null), phần theo user được ghép sau khi lấy ra.
+ * Giới hạn theo trọng số: truyện tính theo số chương, chương tính theo độ dài nội dung (gấp đôi, vì các khối
+ * tách cho API segment được giữ cùng entry).
+ * Truyện được cache kèm version (Last-Modified của truyện + mục lục) lúc nạp; version hiện tại khác thì nạp lại,
+ * nên lần evict bị lỡ (hoặc request đọc song song ghi lại dữ liệu cũ) không giữ bản cũ đến hết hạn.
+ * Chỉ số được xem qua getStats (dashboard admin); project không dùng Micrometer/Actuator nên chưa bind meter.
+ */
+@Service
+@Slf4j
+public class ContentCacheServiceImpl implements ContentCacheService {
+
+    private final Cache<String, CachedStory> storyCache;
+    private final Cache<String, CachedChapter> chapterCache;
+    // storyId -> id các chương đang cache, để evict truyện không phải duyệt toàn bộ chapterCache
+    private final Map<String, Set<String>> chapterIdsByStory = new ConcurrentHashMap<>();
+
+    private record CachedStory(StoryResponse response, LocalDateTime version) {
+    }
+
+    private static final class CachedChapter {
+        private final String storyId;
+        private final ChapterResponse response;
+        // Tách khối lười ở lần đọc segment đầu tiên; hai thread cùng tách thì kết quả như nhau
+        private volatile List<String> blocks;
+
+        private CachedChapter(String storyId, ChapterResponse response) {
+            this.storyId = storyId;
+            this.response = response;
+        }
+
+        String storyId() {
+            return storyId;
+        }
+
+        ChapterResponse response() {
+            return response;
+        }
+    }
+
+    public ContentCacheServiceImpl(
+            @Value("${story.cache.story.max-weight:20000}") long storyMaxWeight,
+            @Value("${story.cache.chapter.max-weight:50000000}") long chapterMaxWeight,
+            @Value("${story.cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+        this.storyCache = Caffeine.newBuilder()
+                .maximumWeight(storyMaxWeight)
+                .weigher((String id, CachedStory cached) -> 1 + sizeOf(cached.response().getChapters()))
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats()
+                .build();
+        this.chapterCache = Caffeine.newBuilder()
+                .maximumWeight(chapterMaxWeight)
+                .weigher((String id, CachedChapter cached) -> 1 + 2 * lengthOf(cached.response().getContent()))
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                // Chạy đồng bộ trong lúc xóa entry do hết hạn/vượt trọng số (evict chủ động tự dọn chỉ số)
+                .evictionListener((String id, CachedChapter cached, RemovalCause cause) -> {
+                    if (id != null && cached != null) {
+                        untrackChapter(cached.storyId(), id);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public StoryResponse getStory(String storyId, LocalDateTime version, Supplier<StoryResponse> loader) {
+        // asMap().get không tính vào thống kê hit/miss, lượt get bên dưới mới tính
+        CachedStory stale = storyCache.asMap().get(storyId);
+        if (stale != null && !Objects.equals(stale.version(), version)) {
+            storyCache.asMap().remove(storyId, stale);
+        }
+        CachedStory cached = storyCache.get(storyId, id -> {
+            StoryResponse response = loader.get();
+            response.setIsFavorite(null);
+            return new CachedStory(response, version);
+        });
+        // Bản sao nông để caller ghép isFavorite mà không làm bẩn giá trị dùng chung
+        return cached.response().toBuilder().build();
+    }
+
+    @Override
+    public ChapterResponse getChapter(String chapterId, Supplier<ChapterResponse> loader) {
+        return loadChapter(chapterId, loader).response();
+    }
+
+    @Override
+    public List<String> getChapterBlocks(String chapterId, Supplier<ChapterResponse> loader) {
+        CachedChapter cached = loadChapter(chapterId, loader);
+        List<String> blocks = cached.blocks;
+        if (blocks == null) {
+            blocks = List.copyOf(HtmlBlockSplitter.split(cached.response().getContent()));
+            cached.blocks = blocks;
+        }
+        return blocks;
+    }
+
+    private CachedChapter loadChapter(String chapterId, Supplier<ChapterResponse> loader) {
+        return chapterCache.get(chapterId, id -> {
+            ChapterResponse response = loader.get();
+            if (response.getStoryId() != null) {
+                chapterIdsByStory.computeIfAbsent(response.getStoryId(), k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            return new CachedChapter(response.getStoryId(), response);
+        });
+    }
+
+    @Override
+    public void evictStory(String storyId) {
+        doEvictStory(storyId);
+
+        // Xóa lại sau commit để request đọc song song không nạp lại dữ liệu cũ trước khi transaction ghi xong
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvictStory(storyId);
+                }
+            });
+        }
+    }
+
+    private void doEvictStory(String storyId) {
+        storyCache.invalidate(storyId);
+        Set<String> chapterIds = chapterIdsByStory.remove(storyId);
+        if (chapterIds != null) {
+            chapterCache.invalidateAll(chapterIds);
+        }
+    }
+
+    private void untrackChapter(String storyId, String chapterId) {
+        if (storyId == null) {
+            return;
+        }
+        chapterIdsByStory.computeIfPresent(storyId, (id, chapterIds) -> {
+            chapterIds.remove(chapterId);
+            return chapterIds.isEmpty() ? null : chapterIds;
+        });
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("story", toMap(storyCache.stats(), storyCache.estimatedSize()));
+        stats.put("chapter", toMap(chapterCache.stats(), chapterCache.estimatedSize()));
+        return stats;
+    }
+
+    private Map<String, Long> toMap(CacheStats cacheStats, long size) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", cacheStats.hitCount());
+        map.put("misses", cacheStats.missCount());
+        map.put("evictions", cacheStats.evictionCount());
+        map.put("evictionWeight", cacheStats.evictionWeight());
+        return map;
+    }
+
+    private static int sizeOf(Collection<?> collection) {
+        return collection != null ? collection.size() : 0;
+    }
+
+    private static int lengthOf(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
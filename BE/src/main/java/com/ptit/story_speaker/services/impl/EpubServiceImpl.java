@@ -1,32 +1,42 @@
 package com.ptit.story_speaker.services.impl;
 
+import com.ptit.story_speaker.common.utils.EpubArchive;
 import com.ptit.story_speaker.domain.dto.response.ChapterExtractionResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
 import com.ptit.story_speaker.domain.entity.TemporaryFileEntity;
+import com.ptit.story_speaker.domain.model.ImportProgress;
 import com.ptit.story_speaker.repository.TemporaryFileRepository;
 import com.ptit.story_speaker.services.EpubService;
 import com.ptit.story_speaker.services.MinioService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import nl.siegmann.epublib.domain.Book;
-import nl.siegmann.epublib.domain.Resource;
-import nl.siegmann.epublib.domain.Spine;
-import nl.siegmann.epublib.domain.SpineReference;
-import nl.siegmann.epublib.epub.EpubReader;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -35,87 +45,129 @@ public class EpubServiceImpl implements EpubService {
 
     private final MinioService minioService;
     private final TemporaryFileRepository temporaryFileRepository;
+    @Qualifier("imageUploadExecutor")
+    private final ExecutorService imageUploadExecutor;
+    @Qualifier("uploadPermits")
+    private final Semaphore uploadPermits;
+
+    /**
+     * Một ảnh đang chờ thay link: trong HTML chương, src tạm là placeholder, khi upload xong được thay bằng URL MinIO
+     * (lỗi thì trả lại src gốc).
+     */
+    private record PendingImage(String originalSrc, String imageHref, CompletableFuture<String> upload) {
+    }
+
+    /**
+     * Trạng thái upload của một lần trích xuất: mỗi ảnh (theo href) chỉ upload một lần dù được dùng ở nhiều chương.
+     */
+    private static class UploadBatch {
+        private final String uploadSession = UUID.randomUUID().toString();
+        private final String placeholderPrefix = "epub-img-" + UUID.randomUUID() + "-";
+        private final Pattern placeholderPattern = Pattern.compile(Pattern.quote(placeholderPrefix) + "(\\d+)");
+        private final Map<String, CompletableFuture<String>> uploadsByHref = new HashMap<>();
+        private final List<CompletableFuture<String>> allUploads = new ArrayList<>();
+        private final List<PendingImage> pendingImages = new ArrayList<>();
+        private final AtomicInteger completedUploads = new AtomicInteger();
+    }
 
     @Override
     public StoryExtractionResponse extractStoryFromEpub(MultipartFile epubFile) throws IOException {
-        try (InputStream epubInputStream = epubFile.getInputStream()) {
-            Book book = (new EpubReader()).readEpub(epubInputStream);
-            StoryExtractionResponse response = new StoryExtractionResponse();
+        // Ghi EPUB ra file tạm để đọc zip random-access, không giữ cả cuốn sách trong heap
+        Path epubPath = Files.createTempFile("epub-import-", ".epub");
+        try {
+            epubFile.transferTo(epubPath);
+            return extractStoryFromEpub(epubPath, progress -> {
+            });
+        } finally {
+            Files.deleteIfExists(epubPath);
+        }
+    }
 
-            // 1. Extract metadata
-            if (book.getMetadata().getTitles() != null && !book.getMetadata().getTitles().isEmpty()) {
-                response.setTitle(book.getMetadata().getTitles().get(0));
-            }
-            if (book.getMetadata().getAuthors() != null && !book.getMetadata().getAuthors().isEmpty()) {
-                response.setAuthor(book.getMetadata().getAuthors().get(0).getFirstname() + " " + book.getMetadata().getAuthors().get(0).getLastname());
-            }
-            if (book.getMetadata().getDescriptions() != null && !book.getMetadata().getDescriptions().isEmpty()) {
-                response.setDescription(Jsoup.parse(book.getMetadata().getDescriptions().get(0)).text());
-            }
+    @Override
+    public StoryExtractionResponse extractStoryFromEpub(Path epubPath, Consumer<ImportProgress> progressListener) throws IOException {
+        try (EpubArchive book = EpubArchive.open(epubPath)) {
+            return extractStory(book, progressListener);
+        }
+    }
 
-            // 2. Upload cover image to MinIO
-            if (book.getCoverImage() != null) {
-                Resource coverImageResource = book.getCoverImage();
-                String extension = getExtension(coverImageResource.getMediaType().getName());
-                String coverImageFileName = "cover-" + UUID.randomUUID() + extension;
-                String coverImageUrl = minioService.uploadFile(coverImageResource.getInputStream(), coverImageFileName, coverImageResource.getMediaType().getName());
-                
-                // Save to temporary files
-                saveToTemporaryFiles(coverImageUrl);
-                
-                response.setCoverImageUrl(coverImageUrl);
+    private StoryExtractionResponse extractStory(EpubArchive book, Consumer<ImportProgress> progressListener) throws IOException {
+        StoryExtractionResponse response = new StoryExtractionResponse();
+
+        // 1. Extract metadata
+        response.setTitle(book.getTitle());
+        response.setAuthor(book.getAuthor());
+        if (book.getDescription() != null) {
+            response.setDescription(Jsoup.parse(book.getDescription()).text());
+        }
+
+        UploadBatch uploads = new UploadBatch();
+        CompletableFuture<String> coverUpload = null;
+        List<ChapterExtractionResponse> chapters = new ArrayList<>();
+        try {
+            // 2. Upload cover image to MinIO (chạy nền song song với việc parse chương)
+            EpubArchive.Item coverImage = book.getCoverImage();
+            if (coverImage != null) {
+                String coverImageFileName = "cover-" + UUID.randomUUID() + getExtension(contentTypeOf(coverImage));
+                coverUpload = submitUpload(uploads, book, coverImage, coverImageFileName);
             }
 
-            // 3. Extract chapters and process content images
-            List<ChapterExtractionResponse> chapters = new ArrayList<>();
-            Spine spine = book.getSpine();
-
-            // Handle single chapter case vs multiple chapters
-            if (spine.size() > 0) {
-                for (int i = 0; i < spine.size(); i++) {
-                    SpineReference spineReference = spine.getSpineReferences().get(i);
-                    Resource chapterResource = spineReference.getResource();
-                    
-                    // Get the href of the current chapter (e.g., "Text/chapter1.html") to resolve relative image paths
-                    String chapterHref = chapterResource.getHref();
-                    
-                    String chapterContent = new String(chapterResource.getData());
-                    
-                    // Process HTML to upload images and replace links
-                    String processedContent = processChapterContent(chapterContent, chapterHref, book);
-
-                    Document doc = Jsoup.parse(processedContent);
-                    ChapterExtractionResponse chapter = new ChapterExtractionResponse();
-                    
-                    String title = doc.title();
-                    if (title == null || title.isEmpty()) {
-                        // Try to find h1 or h2 as title if doc title is missing
-                        Element h1 = doc.selectFirst("h1");
-                        if (h1 != null) {
-                            title = h1.text();
-                        } else {
-                            title = (spine.size() == 1 && response.getTitle() != null) ? response.getTitle() : "Chapter " + (i + 1);
-                        }
+            // 3. Parse chapters lần lượt từng entry; ảnh trong nội dung được đẩy vào hàng đợi upload
+            // Mỗi chương chỉ giữ DOM trong lúc xử lý, sau đó chỉ còn HTML của body
+            List<EpubArchive.Item> spine = book.getSpine();
+            for (int i = 0; i < spine.size(); i++) {
+                EpubArchive.Item chapterItem = spine.get(i);
+                // Full path of the current chapter (e.g., "OEBPS/Text/chapter1.html") to resolve relative image paths
+                String chapterHref = chapterItem.href();
+
+                Document doc = processChapterContent(book.readText(chapterItem), chapterHref, book, uploads);
+                ChapterExtractionResponse chapter = new ChapterExtractionResponse();
+
+                String title = doc.title();
+                if (title == null || title.isEmpty()) {
+                    // Try to find h1 or h2 as title if doc title is missing
+                    Element h1 = doc.selectFirst("h1");
+                    if (h1 != null) {
+                        title = h1.text();
+                    } else {
+                        title = (spine.size() == 1 && response.getTitle() != null) ? response.getTitle() : "Chapter " + (i + 1);
                     }
-                    
-                    chapter.setTitle(title);
-                    chapter.setChapterNumber(i + 1);
-                    chapter.setContent(doc.body().html()); // Get only body content
-                    chapters.add(chapter);
                 }
+
+                chapter.setTitle(title);
+                chapter.setChapterNumber(i + 1);
+                chapter.setContent(doc.body().html()); // Get only body content
+                chapters.add(chapter);
+                reportProgress(progressListener, chapters.size(), spine.size(), uploads);
             }
-            response.setChapters(chapters);
+        } finally {
+            // Chờ mọi upload đã submit (kể cả khi parse lỗi) và ghi TemporaryFile một lần để job dọn dẹp thu hồi được
+            awaitUploads(uploads, () -> reportProgress(progressListener, chapters.size(), chapters.size(), uploads));
+        }
 
-            return response;
+        if (coverUpload != null) {
+            String coverImageUrl = getUploadedUrl(coverUpload, "cover");
+            if (coverImageUrl != null) {
+                // Thumbnail chỉ sinh khi truyện được lưu, bản trích xuất bị bỏ không để lại ảnh thu nhỏ
+                response.setCoverImageUrl(coverImageUrl);
+            }
+        }
+
+        // 4. Thay placeholder bằng URL MinIO
+        for (ChapterExtractionResponse chapter : chapters) {
+            chapter.setContent(replacePlaceholders(chapter.getContent(), uploads));
         }
+        response.setChapters(chapters);
+        response.setUploadSessionId(uploads.uploadSession);
+
+        return response;
     }
 
-    private String processChapterContent(String htmlContent, String chapterHref, Book book) {
+    private Document processChapterContent(String htmlContent, String chapterHref, EpubArchive book, UploadBatch uploads) {
         Document doc = Jsoup.parse(htmlContent);
 
         // 1. Handle standard HTML <img> tags
         for (Element img : doc.select("img")) {
-            processImageElement(img, "src", chapterHref, book);
+            processImageElement(img, "src", chapterHref, book, uploads);
         }
 
         // 2. Handle SVG <image> tags (often used for covers or full page images in EPUB)
@@ -123,13 +175,13 @@ public class EpubServiceImpl implements EpubService {
         for (Element svgImg : doc.select("image")) {
             // SVG images usually use xlink:href, but sometimes just href
             String attrName = svgImg.hasAttr("xlink:href") ? "xlink:href" : "href";
-            processImageElement(svgImg, attrName, chapterHref, book);
+            processImageElement(svgImg, attrName, chapterHref, book, uploads);
         }
 
-        return doc.outerHtml();
+        return doc;
     }
 
-    private void processImageElement(Element element, String attrName, String chapterHref, Book book) {
+    private void processImageElement(Element element, String attrName, String chapterHref, EpubArchive book, UploadBatch uploads) {
         String src = element.attr(attrName);
 
         // Skip if src is empty, absolute URL, or base64
@@ -137,66 +189,94 @@ public class EpubServiceImpl implements EpubService {
             return;
         }
 
-        try {
-            // Resolve relative path (e.g., "../images/pic.jpg" relative to "Text/chap1.html")
-            String imageHref = resolveHref(chapterHref, src);
-
-            Resource imageResource = book.getResources().getByHref(imageHref);
-            if (imageResource != null) {
-                String contentType = imageResource.getMediaType().getName();
-                String extension = getExtension(contentType);
-                String fileName = "story-img-" + UUID.randomUUID() + extension;
-
-                // Upload to MinIO
-                String minioUrl = minioService.uploadFile(imageResource.getInputStream(), fileName, contentType);
-                
-                // Save to temporary files
-                saveToTemporaryFiles(minioUrl);
-
-                // Replace attribute with MinIO URL
-                element.attr(attrName, minioUrl);
-            } else {
+        // Resolve relative path (e.g., "../images/pic.jpg" relative to "Text/chap1.html")
+        String imageHref = EpubArchive.resolveHref(chapterHref, src);
+
+        CompletableFuture<String> upload = uploads.uploadsByHref.get(imageHref);
+        if (upload == null) {
+            EpubArchive.Item imageItem = book.getByHref(imageHref);
+            if (imageItem == null) {
                 log.warn("Could not find image resource in EPUB: " + imageHref);
+                return;
             }
-        } catch (Exception e) {
-            log.error("Error processing image in EPUB: " + src, e);
+            String fileName = "story-img-" + UUID.randomUUID() + getExtension(contentTypeOf(imageItem));
+            upload = submitUpload(uploads, book, imageItem, fileName);
+            uploads.uploadsByHref.put(imageHref, upload);
         }
+        element.attr(attrName, uploads.placeholderPrefix + uploads.pendingImages.size());
+        uploads.pendingImages.add(new PendingImage(src, imageHref, upload));
     }
 
-    private void saveToTemporaryFiles(String fileUrl) {
-        TemporaryFileEntity tempFile = TemporaryFileEntity.builder()
-                .fileUrl(fileUrl)
-                .createdAt(LocalDateTime.now())
-                .build();
-        temporaryFileRepository.save(tempFile);
+    private String replacePlaceholders(String html, UploadBatch uploads) {
+        Matcher matcher = uploads.placeholderPattern.matcher(html);
+        StringBuilder result = new StringBuilder(html.length());
+        while (matcher.find()) {
+            PendingImage pending = uploads.pendingImages.get(Integer.parseInt(matcher.group(1)));
+            String minioUrl = getUploadedUrl(pending.upload(), pending.imageHref());
+            String replacement = minioUrl != null ? minioUrl : Entities.escape(pending.originalSrc());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
     }
 
-    // Helper to resolve relative paths within the EPUB structure
-    private String resolveHref(String baseHref, String relativeHref) {
-        try {
-            // EPUB hrefs are URI-like paths. We can use URI class to resolve.
-            // We need a dummy base because URI resolution expects a scheme or absolute path for correct ".." handling sometimes,
-            // but usually relative resolution works fine if we treat the base as a path.
-            
-            String basePath = "";
-            int lastSlashIdx = baseHref.lastIndexOf('/');
-            if (lastSlashIdx >= 0) {
-                basePath = baseHref.substring(0, lastSlashIdx + 1);
+    private CompletableFuture<String> submitUpload(UploadBatch uploads, EpubArchive book, EpubArchive.Item item, String fileName) {
+        String contentType = contentTypeOf(item);
+        CompletableFuture<String> upload = CompletableFuture.supplyAsync(() -> {
+            uploadPermits.acquireUninterruptibly();
+            // Stream thẳng từ entry zip, không đọc cả ảnh vào bộ nhớ
+            try (InputStream inputStream = book.openStream(item)) {
+                return minioService.uploadFile(inputStream, fileName, contentType);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read EPUB resource " + item.href(), e);
+            } finally {
+                uploadPermits.release();
             }
-            
-            URI baseUri = new URI("file:///" + basePath); // Dummy scheme to make it absolute for robust resolution
-            URI resolvedUri = baseUri.resolve(relativeHref);
-            
-            // Remove the dummy scheme
-            String resolvedPath = resolvedUri.getPath();
-            if (resolvedPath.startsWith("/")) {
-                resolvedPath = resolvedPath.substring(1);
+        }, imageUploadExecutor).whenComplete((url, error) -> uploads.completedUploads.incrementAndGet());
+        uploads.allUploads.add(upload);
+        return upload;
+    }
+
+    private void reportProgress(Consumer<ImportProgress> progressListener, int processedChapters, int totalChapters, UploadBatch uploads) {
+        progressListener.accept(new ImportProgress(processedChapters, totalChapters,
+                uploads.completedUploads.get(), uploads.allUploads.size()));
+    }
+
+    private void awaitUploads(UploadBatch uploads, Runnable onUploadDone) {
+        List<TemporaryFileEntity> tempFiles = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (CompletableFuture<String> upload : uploads.allUploads) {
+            try {
+                String url = upload.get();
+                tempFiles.add(TemporaryFileEntity.builder().fileUrl(url).uploadSession(uploads.uploadSession).createdAt(now).build());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Lỗi đã được log khi lấy URL, ảnh giữ nguyên link gốc
             }
-            
-            return resolvedPath;
-        } catch (URISyntaxException e) {
-            return relativeHref; // Fallback
+            onUploadDone.run();
+        }
+        if (!tempFiles.isEmpty()) {
+            temporaryFileRepository.saveAll(tempFiles);
+        }
+    }
+
+    private String getUploadedUrl(CompletableFuture<String> upload, String source) {
+        try {
+            return upload.join();
+        } catch (Exception e) {
+            log.error("Error processing image in EPUB: " + source, e);
+            return null;
+        }
+    }
+
+    private String contentTypeOf(EpubArchive.Item item) {
+        if (item.mediaType() != null && !item.mediaType().isEmpty()) {
+            return item.mediaType();
         }
+        String guessed = URLConnection.guessContentTypeFromName(item.href());
+        return guessed != null ? guessed : "application/octet-stream";
     }
 
     private String getExtension(String contentType) {
@@ -3,42 +3,92 @@ package com.ptit.story_speaker.services.impl;
 import com.ptit.story_speaker.domain.entity.TemporaryFileEntity;
 import com.ptit.story_speaker.repository.TemporaryFileRepository;
 import com.ptit.story_speaker.services.MinioService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FileCleanupServiceImpl {
 
+    // Mốc bắt đầu của keyset, nhỏ hơn mọi CREATED_AT thực tế
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final TemporaryFileRepository temporaryFileRepository;
     private final MinioService minioService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public FileCleanupServiceImpl(TemporaryFileRepository temporaryFileRepository,
+                                  MinioService minioService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${story.cleanup.chunk-size:500}") int chunkSize) {
+        this.temporaryFileRepository = temporaryFileRepository;
+        this.minioService = minioService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
 
+    /**
+     * Dọn file tạm quá 24h theo từng chunk: mỗi chunk một lệnh bulk delete trên MinIO và một lệnh DELETE ... IN
+     * trên DB, commit riêng nên job dừng giữa chừng cũng không mất tiến độ. Dòng nào xóa object lỗi được giữ lại
+     * để lần chạy sau thử lại.
+     */
     @Scheduled(cron = "0 13 23 * * ?")
-    @Transactional
     public void cleanupOrphanedFiles() {
         log.info("Starting orphaned files cleanup job...");
+        long startedAt = System.currentTimeMillis();
 
         LocalDateTime expiryTime = LocalDateTime.now().minusHours(24);
-        List<TemporaryFileEntity> orphanedFiles = temporaryFileRepository.findByCreatedAtBefore(expiryTime);
+        LocalDateTime afterCreatedAt = KEYSET_START;
+        String afterId = "";
+        int chunks = 0;
+        long scanned = 0;
+        long deleted = 0;
+        long failed = 0;
 
-        for (TemporaryFileEntity file : orphanedFiles) {
-            try {
+        while (true) {
+            List<TemporaryFileEntity> chunk = temporaryFileRepository.findExpiredChunk(
+                    expiryTime, afterCreatedAt, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            long chunkStartedAt = System.currentTimeMillis();
+            TemporaryFileEntity last = chunk.get(chunk.size() - 1);
+            afterCreatedAt = last.getCreatedAt();
+            afterId = last.getId();
+
+            Set<String> failedUrls = minioService.removeFiles(
+                    chunk.stream().map(TemporaryFileEntity::getFileUrl).toList());
+            List<String> removableIds = chunk.stream()
+                    .filter(file -> !failedUrls.contains(file.getFileUrl()))
+                    .map(TemporaryFileEntity::getId)
+                    .toList();
+            Integer chunkDeleted = removableIds.isEmpty() ? Integer.valueOf(0)
+                    : transactionTemplate.execute(status -> temporaryFileRepository.deleteAllByIdIn(removableIds));
 
-                minioService.removeFile(file.getFileUrl()); 
+            chunks++;
+            scanned += chunk.size();
+            deleted += chunkDeleted != null ? chunkDeleted : 0;
+            failed += chunk.size() - removableIds.size();
+            log.info("Cleanup chunk {}: {} files, {} deleted, {} failed in {} ms (total scanned {})",
+                    chunks, chunk.size(), chunkDeleted, chunk.size() - removableIds.size(),
+                    System.currentTimeMillis() - chunkStartedAt, scanned);
 
-                temporaryFileRepository.delete(file);
-            } catch (Exception e) {
-                log.error("Failed to delete file: {}", file.getFileUrl(), e);
+            if (chunk.size() < chunkSize) {
+                break;
             }
         }
-        
-        log.info("Cleanup job finished. Processed {} files.", orphanedFiles.size());
+
+        log.info("Cleanup job finished in {} ms. Scanned {} files in {} chunks, deleted {}, failed {}.",
+                System.currentTimeMillis() - startedAt, scanned, chunks, deleted, failed);
     }
 }
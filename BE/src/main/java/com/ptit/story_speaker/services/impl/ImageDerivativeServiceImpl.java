@@ -0,0 +1,202 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.utils.ImageDerivatives;
+import com.ptit.story_speaker.repository.StoryRepository;
+import com.ptit.story_speaker.services.ContentCacheService;
+import com.ptit.story_speaker.services.ImageDerivativeService;
+import com.ptit.story_speaker.services.MinioService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sinh ảnh bìa thu nhỏ (JPEG, nhiều độ rộng) cạnh ảnh gốc trên MinIO, chạy nền trên pool giới hạn.
+ * Xong thì ghi COVER_THUMBNAIL_URL cho các truyện dùng ảnh bìa đó; trước đó client vẫn dùng ảnh gốc.
+ * JDK ImageIO không có encoder WebP nên dùng JPEG nén chất lượng vừa phải.
+ * Kích thước ảnh gốc được đọc từ header trước khi giải mã: ảnh quá lớn bị bỏ qua, ảnh lớn được giải mã
+ * với source subsampling để không giữ cả ảnh độ phân giải đầy đủ trong heap.
+ * Thumbnail bị xóa cùng ảnh gốc (MinioService).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private final MinioService minioService;
+    private final StoryRepository storyRepository;
+    private final ContentCacheService contentCacheService;
+    @Qualifier("imageDerivativeExecutor")
+    private final ThreadPoolTaskExecutor imageDerivativeExecutor;
+
+    @Value("${story.image-derivative.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${story.image-derivative.max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    @Override
+    public void generateCoverThumbnails(String coverImageUrl) {
+        if (coverImageUrl == null || coverImageUrl.isBlank()) {
+            return;
+        }
+        // Chạy sau commit để job nền thấy được truyện vừa lưu
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(coverImageUrl);
+                }
+            });
+        } else {
+            submit(coverImageUrl);
+        }
+    }
+
+    private void submit(String coverImageUrl) {
+        imageDerivativeExecutor.execute(() -> {
+            try {
+                generate(coverImageUrl);
+            } catch (Exception e) {
+                log.error("Failed to generate thumbnails for {}", coverImageUrl, e);
+            }
+        });
+    }
+
+    private void generate(String coverImageUrl) throws IOException {
+        if (minioService.getObjectName(coverImageUrl) == null) {
+            return; // Ảnh bìa ngoài MinIO của hệ thống
+        }
+        String cardThumbnailUrl = ImageDerivatives.derivativeName(coverImageUrl, ImageDerivatives.CARD_WIDTH);
+
+        // Ảnh bìa content-addressed dùng chung nên thumbnail có thể đã được sinh trước đó.
+        // Bản CARD_WIDTH luôn ghi sau cùng nên nó tồn tại nghĩa là cả bộ đã đủ (lần trước lỗi giữa chừng thì sinh lại)
+        if (!minioService.fileExists(cardThumbnailUrl)) {
+            BufferedImage original;
+            try (InputStream inputStream = minioService.downloadFile(coverImageUrl)) {
+                original = readSubsampled(inputStream, coverImageUrl);
+            }
+            if (original == null) {
+                return;
+            }
+
+            for (int width : ImageDerivatives.COVER_WIDTHS) {
+                if (width != ImageDerivatives.CARD_WIDTH) {
+                    uploadDerivative(original, coverImageUrl, width);
+                }
+            }
+            uploadDerivative(original, coverImageUrl, ImageDerivatives.CARD_WIDTH);
+        }
+
+        List<String> storyIds = storyRepository.findIdsByCoverImageUrl(coverImageUrl);
+        if (!storyIds.isEmpty()) {
+            storyRepository.updateCoverThumbnailUrl(coverImageUrl, cardThumbnailUrl, LocalDateTime.now());
+            storyIds.forEach(contentCacheService::evictStory);
+        }
+    }
+
+    private void uploadDerivative(BufferedImage original, String coverImageUrl, int width) throws IOException {
+        byte[] jpeg = encodeJpeg(resize(original, width));
+        String derivativeUrl = ImageDerivatives.derivativeName(coverImageUrl, width);
+        minioService.uploadStream(new ByteArrayInputStream(jpeg), minioService.getObjectName(derivativeUrl), "image/jpeg");
+    }
+
+    /**
+     * Giải mã ảnh với subsampling sao cho còn khoảng gấp đôi độ rộng thumbnail lớn nhất (đủ cho bước thu nhỏ
+     * từng nửa). Null nếu định dạng không hỗ trợ hoặc ảnh vượt max-source-pixels.
+     */
+    private BufferedImage readSubsampled(InputStream inputStream, String coverImageUrl) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = imageInput != null ? ImageIO.getImageReaders(imageInput) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.warn("Unsupported image format, skip thumbnails: {}", coverImageUrl);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxSourcePixels) {
+                    log.warn("Image {}x{} exceeds {} pixels, skip thumbnails: {}", width, height, maxSourcePixels, coverImageUrl);
+                    return null;
+                }
+                int maxWidth = Collections.max(ImageDerivatives.COVER_WIDTHS);
+                int subsampling = Math.max(1, width / (2 * maxWidth));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage original, int targetWidth) {
+        // Không phóng to ảnh nhỏ
+        int width = Math.min(targetWidth, original.getWidth());
+        int height = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+
+        // Thu nhỏ từng nửa một cho chất lượng tốt hơn khi tỉ lệ lớn
+        BufferedImage current = original;
+        int currentWidth = original.getWidth();
+        int currentHeight = original.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // Nền trắng cho ảnh PNG trong suốt vì JPEG không có alpha
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
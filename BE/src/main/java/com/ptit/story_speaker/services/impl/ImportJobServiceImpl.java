@@ -0,0 +1,250 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.SseEmitterRegistry;
+import com.ptit.story_speaker.domain.dto.response.ImportJobResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.domain.entity.ImportJobEntity;
+import com.ptit.story_speaker.domain.entity.UserEntity;
+import com.ptit.story_speaker.domain.mapper.ImportJobMapper;
+import com.ptit.story_speaker.domain.model.ImportProgress;
+import com.ptit.story_speaker.domain.model.enums.ImportJobStatus;
+import com.ptit.story_speaker.domain.model.enums.Role;
+import com.ptit.story_speaker.repository.ImportJobRepository;
+import com.ptit.story_speaker.services.EpubService;
+import com.ptit.story_speaker.services.ImportJobService;
+import com.ptit.story_speaker.services.StoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+/**
+ * Import EPUB theo job: request chỉ lưu file tạm và trả về job id, việc trích xuất/upload ảnh/lưu chương
+ * chạy trên pool importJobExecutor. Trạng thái và tiến độ được ghi vào IMPORT_JOB và đẩy qua SSE.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobServiceImpl implements ImportJobService {
+
+    private static final String PROGRESS_EVENT = "progress";
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobMapper importJobMapper;
+    private final EpubService epubService;
+    private final StoryService storyService;
+    @Qualifier("importJobExecutor")
+    private final ThreadPoolTaskExecutor importJobExecutor;
+
+    // jobId -> các client đang theo dõi
+    private final SseEmitterRegistry emitters = new SseEmitterRegistry();
+
+    @Value("${story.import.progress-interval-ms:500}")
+    private long progressIntervalMs;
+
+    @Value("${story.import.sse-timeout-ms:600000}")
+    private long sseTimeoutMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int interrupted = importJobRepository.failJobsInStatus(
+                EnumSet.of(ImportJobStatus.QUEUED, ImportJobStatus.EXTRACTING, ImportJobStatus.SAVING),
+                "Import bị gián đoạn do server khởi động lại", LocalDateTime.now());
+        if (interrupted > 0) {
+            log.warn("Marked {} interrupted import jobs as failed", interrupted);
+        }
+    }
+
+    @Override
+    public ImportJobResponse submitEpubImport(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "File không được để trống");
+        }
+        UserEntity currentUser = getCurrentUser();
+
+        // File multipart bị xóa khi request kết thúc, chuyển sang file tạm do job quản lý
+        Path epubPath = Files.createTempFile("epub-import-", ".epub");
+        ImportJobEntity job;
+        try {
+            file.transferTo(epubPath);
+            job = importJobRepository.save(ImportJobEntity.builder()
+                    .userId(currentUser.getId())
+                    .fileName(file.getOriginalFilename())
+                    .status(ImportJobStatus.QUEUED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(epubPath);
+            throw e;
+        }
+
+        String jobId = job.getId();
+        try {
+            // Job lưu truyện dưới tên người upload: mang SecurityContext hiện tại sang worker thread
+            importJobExecutor.execute(new DelegatingSecurityContextRunnable(() -> runJob(jobId, epubPath)));
+        } catch (TaskRejectedException e) {
+            Files.deleteIfExists(epubPath);
+            importJobRepository.deleteById(jobId);
+            throw new AppException(ErrorCode.IMPORT_QUEUE_FULL);
+        }
+        return importJobMapper.toResponse(job);
+    }
+
+    @Override
+    public ImportJobResponse getJob(String jobId) {
+        return importJobMapper.toResponse(findAccessibleJob(jobId));
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        ImportJobEntity job = findAccessibleJob(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event().name(PROGRESS_EVENT).data(importJobMapper.toResponse(job)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        if (job.getStatus().isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        emitters.register(jobId, emitter);
+
+        // Job có thể đã kết thúc giữa lúc đọc trạng thái và đăng ký
+        importJobRepository.findById(jobId)
+                .filter(latest -> latest.getStatus().isFinished())
+                .ifPresent(latest -> publish(latest, true));
+        return emitter;
+    }
+
+    private void runJob(String jobId, Path epubPath) {
+        ImportJobEntity job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            deleteQuietly(epubPath);
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            job.setStatus(ImportJobStatus.EXTRACTING);
+            job.setStartedAt(LocalDateTime.now());
+            job = importJobRepository.save(job);
+            publish(job, false);
+
+            ProgressReporter reporter = new ProgressReporter(job);
+            StoryExtractionResponse extracted = epubService.extractStoryFromEpub(epubPath, reporter::report);
+            reporter.flush();
+
+            job.setStatus(ImportJobStatus.SAVING);
+            job = importJobRepository.save(job);
+            publish(job, false);
+
+            // Transaction chỉ mở trong lúc lưu truyện, không giữ connection khi parse/upload
+            StoryResponse story = storyService.saveImportedStory(extracted);
+
+            job.setStatus(ImportJobStatus.COMPLETED);
+            job.setStoryId(story.getId());
+            job.setProcessedChapters(job.getTotalChapters());
+            log.info("Import job {} completed in {} ms: story {}", jobId, System.currentTimeMillis() - startedAt, story.getId());
+        } catch (Exception e) {
+            log.error("Import job {} failed", jobId, e);
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setErrorMessage(e instanceof AppException ? e.getMessage() : "Không thể import file EPUB: " + e.getMessage());
+        } finally {
+            deleteQuietly(epubPath);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        publish(importJobRepository.save(job), true);
+    }
+
+    /**
+     * Ghi tiến độ vào DB và đẩy SSE, tối đa một lần mỗi story.import.progress-interval-ms.
+     */
+    private class ProgressReporter {
+        private final ImportJobEntity job;
+        private ImportProgress pending;
+        private long lastWrittenAt;
+
+        ProgressReporter(ImportJobEntity job) {
+            this.job = job;
+        }
+
+        void report(ImportProgress progress) {
+            pending = progress;
+            if (System.currentTimeMillis() - lastWrittenAt >= progressIntervalMs) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending == null) {
+                return;
+            }
+            job.setProcessedChapters(pending.processedChapters());
+            job.setTotalChapters(pending.totalChapters());
+            job.setUploadedImages(pending.uploadedImages());
+            job.setTotalImages(pending.totalImages());
+            importJobRepository.updateProgress(job.getId(), pending.processedChapters(), pending.totalChapters(),
+                    pending.uploadedImages(), pending.totalImages());
+            publish(job, false);
+            pending = null;
+            lastWrittenAt = System.currentTimeMillis();
+        }
+    }
+
+    private void publish(ImportJobEntity job, boolean finished) {
+        ImportJobResponse response = importJobMapper.toResponse(job);
+        if (finished) {
+            emitters.complete(job.getId(), PROGRESS_EVENT, response);
+        } else {
+            emitters.send(job.getId(), PROGRESS_EVENT, response);
+        }
+    }
+
+    private ImportJobEntity findAccessibleJob(String jobId) {
+        ImportJobEntity job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy job import"));
+        UserEntity currentUser = getCurrentUser();
+        if (!job.getUserId().equals(currentUser.getId()) && currentUser.getRole() != Role.ADMIN) {
+            throw new AppException(ErrorCode.FORBIDDEN);
+        }
+        return job;
+    }
+
+    private UserEntity getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            throw new AppException(ErrorCode.UNAUTHORIZED, "User not authenticated");
+        }
+        return (UserEntity) authentication.getPrincipal();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary EPUB {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,78 @@
 package com.ptit.story_speaker.services.impl;
 
+import com.ptit.story_speaker.common.utils.ImageDerivatives;
+import com.ptit.story_speaker.domain.entity.BlobReferenceEntity;
+import com.ptit.story_speaker.domain.model.StoredObject;
+import com.ptit.story_speaker.domain.model.UploadResult;
+import com.ptit.story_speaker.repository.BlobReferenceRepository;
 import com.ptit.story_speaker.services.MinioService;
+import io.minio.ComposeObjectArgs;
+import io.minio.ComposeSource;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MinioServiceImpl implements MinioService {
 
+    // Object content-addressed: sha256/<hash>.<ext>
+    private static final String CONTENT_ADDRESSED_PREFIX = "sha256/";
+    // S3 yêu cầu mỗi part (trừ part cuối) tối thiểu 5 MiB
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    // Buffer đọc part bắt đầu nhỏ rồi tăng gấp đôi, ảnh vài trăm KB không phải cấp phát cả part-size
+    private static final int INITIAL_PART_BUFFER = 64 * 1024;
+
     private final MinioClient minioClient;
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("minioPartUploadExecutor")
+    private final ExecutorService partUploadExecutor;
 
     @Value("${minio.bucket-name}")
     private String defaultBucketName;
@@ -27,54 +80,492 @@ public class MinioServiceImpl implements MinioService {
     @Value("${minio.url}")
     private String minioUrl;
 
+    @Value("${minio.content-addressed:true}")
+    private boolean contentAddressed;
+
+    @Value("${minio.upload.part-size:10485760}")
+    private int partSize;
+
+    @Value("${minio.upload.part-concurrency:4}")
+    private int partConcurrency;
+
     @Override
     public String uploadFile(InputStream inputStream, String fileName, String contentType) {
+        if (contentAddressed) {
+            return uploadContentAddressed(inputStream, fileName, contentType);
+        }
+        return uploadStream(inputStream, fileName, contentType).url();
+    }
+
+    /**
+     * Upload stream chưa biết trước độ dài mà không cần buffer cả file:
+     * đọc từng part (minio.upload.part-size); stream nhỏ hơn một part thì put một lần,
+     * lớn hơn thì upload các part song song thành object tạm rồi ghép bằng composeObject (server-side).
+     * Bộ nhớ tối đa ~ part-size * part-concurrency cho mỗi upload.
+     * Thời gian/throughput trả về trong UploadResult và ghi log; project chưa có Micrometer nên không publish meter.
+     */
+    @Override
+    public UploadResult uploadStream(InputStream inputStream, String objectName, String contentType) {
+        long start = System.nanoTime();
+        int effectivePartSize = Math.max(MIN_PART_SIZE, partSize);
         try {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
+            byte[] firstPart = readPart(inputStream, effectivePartSize);
+            UploadResult result;
+            if (firstPart.length < effectivePartSize) {
+                putBytes(objectName, firstPart, contentType);
+                result = toResult(objectName, firstPart.length, 1, start);
+            } else {
+                result = uploadParts(inputStream, firstPart, effectivePartSize, objectName, contentType, start);
+            }
+            log.info("Uploaded {} ({} bytes, {} part(s)) in {} ms, {} KB/s", objectName, result.size(), result.parts(),
+                    result.durationMs(), Math.round(result.throughputBytesPerSecond() / 1024));
+            return result;
+        } catch (Exception e) {
+            throw new RuntimeException("Error uploading file to MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    private UploadResult uploadParts(InputStream inputStream, byte[] firstPart, int effectivePartSize,
+                                     String objectName, String contentType, long start) throws Exception {
+        // Semaphore giới hạn số part đang nằm trong bộ nhớ / đang upload
+        Semaphore permits = new Semaphore(Math.max(1, partConcurrency));
+        List<String> partNames = new ArrayList<>();
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        long totalSize = 0;
+        try {
+            byte[] part = firstPart;
+            while (part.length > 0) {
+                String partName = objectName + ".part-" + String.format("%05d", partNames.size());
+                byte[] data = part;
+                permits.acquire();
+                partNames.add(partName);
+                uploads.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        putBytes(partName, data, contentType);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        permits.release();
+                    }
+                }, partUploadExecutor));
+                totalSize += part.length;
+                part = readPart(inputStream, effectivePartSize);
+            }
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+
+            List<ComposeSource> sources = partNames.stream()
+                    .map(name -> ComposeSource.builder().bucket(defaultBucketName).object(name).build())
+                    .toList();
+            minioClient.composeObject(
+                    ComposeObjectArgs.builder()
                             .bucket(defaultBucketName)
-                            .object(fileName)
-                            .stream(inputStream, inputStream.available(), -1)
-                            .contentType(contentType)
+                            .object(objectName)
+                            .sources(sources)
+                            .headers(Map.of("Content-Type", contentType != null ? contentType : "application/octet-stream"))
                             .build());
-            // Construct the URL manually
-            return minioUrl + "/" + defaultBucketName + "/" + fileName;
+            return toResult(objectName, totalSize, partNames.size(), start);
+        } finally {
+            // Chờ các part còn đang chạy (khi lỗi) rồi xóa object tạm
+            for (CompletableFuture<Void> upload : uploads) {
+                try {
+                    upload.join();
+                } catch (Exception ignored) {
+                    // lỗi đã được ném ra ở allOf
+                }
+            }
+            bulkRemove(defaultBucketName, partNames);
+        }
+    }
+
+    /**
+     * Đọc tối đa limit byte; buffer tăng dần theo dữ liệu thực nhận, không cấp phát trước cả limit.
+     */
+    private static byte[] readPart(InputStream inputStream, int limit) throws IOException {
+        byte[] buffer = new byte[Math.min(limit, INITIAL_PART_BUFFER)];
+        int length = 0;
+        while (length < limit) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(limit, buffer.length * 2L));
+            }
+            int read = inputStream.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private void putBytes(String objectName, byte[] data, String contentType) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(defaultBucketName)
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(data), data.length, -1)
+                        .contentType(contentType)
+                        .build());
+    }
+
+    private UploadResult toResult(String objectName, long size, int parts, long start) {
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        return new UploadResult(getFileUrl(objectName), objectName, size, parts, durationMs);
+    }
+
+    /**
+     * Xóa nhiều object bằng DeleteObjects (SDK tự chia lô 1000 object/request).
+     * Trả về tên các object xóa lỗi; lỗi cả request thì coi như tất cả đều lỗi.
+     */
+    private Set<String> bulkRemove(String bucketName, Collection<String> objectNames) {
+        if (objectNames.isEmpty()) {
+            return Set.of();
+        }
+        List<DeleteObject> objects = objectNames.stream().distinct().map(DeleteObject::new).toList();
+        Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucketName).objects(objects).build());
+        // removeObjects lazy: phải duyệt kết quả thì request mới được gửi
+        Set<String> failed = new HashSet<>();
+        try {
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                log.warn("Could not remove object {}: {}", error.objectName(), error.message());
+                failed.add(error.objectName());
+            }
+        } catch (Exception e) {
+            log.warn("Bulk remove on bucket {} failed: {}", bucketName, e.getMessage());
+            return new HashSet<>(objectNames);
+        }
+        return failed;
+    }
+
+    /**
+     * Đặt tên object theo SHA-256 nội dung: cùng một ảnh (import lại EPUB, lưu lại base64...) chỉ lưu một bản.
+     * Stream được ghi ra file tạm đồng thời tính hash; chỉ upload khi object chưa tồn tại.
+     * Mỗi lần gọi tăng REF_COUNT, {@link #removeFile(String)} giảm lại.
+     */
+    private String uploadContentAddressed(InputStream inputStream, String fileName, String contentType) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("minio-upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (DigestInputStream digestStream = new DigestInputStream(inputStream, digest)) {
+                Files.copy(digestStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String extension = FilenameUtils.getExtension(fileName);
+            String objectName = CONTENT_ADDRESSED_PREFIX + HexFormat.of().formatHex(digest.digest())
+                    + (extension == null || extension.isEmpty() ? "" : "." + extension.toLowerCase());
+
+            // Tăng tham chiếu trước khi kiểm tra object, để removeFile song song không xóa mất object đang dùng
+            blobReferenceRepository.incrementReference(objectName);
+            try {
+                if (!objectExists(objectName)) {
+                    try (InputStream fileStream = Files.newInputStream(tempFile)) {
+                        uploadStream(fileStream, objectName, contentType);
+                    }
+                } else {
+                    log.debug("Reusing existing object {}", objectName);
+                }
+            } catch (Exception e) {
+                releaseReference(objectName);
+                throw e;
+            }
+            return getFileUrl(objectName);
         } catch (Exception e) {
-            throw new RuntimeException("Error uploading file to MinIO: " + e.getMessage());
+            throw new RuntimeException("Error uploading file to MinIO: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
 
     @Override
-    public void removeFile(String fileUrl) {
+    public InputStream downloadFile(String fileUrl) {
+        String objectName = getObjectName(fileUrl);
+        if (objectName == null) {
+            throw new IllegalArgumentException("Not a file of bucket " + defaultBucketName + ": " + fileUrl);
+        }
         try {
-            // Sử dụng URI để parse path, tránh phụ thuộc vào domain (localhost vs 127.0.0.1)
-            URI uri = new URI(fileUrl);
-            String path = uri.getPath(); // Trả về /bucket/object/name...
+            return minioClient.getObject(GetObjectArgs.builder().bucket(defaultBucketName).object(objectName).build());
+        } catch (Exception e) {
+            throw new RuntimeException("Error downloading file from MinIO: " + e.getMessage(), e);
+        }
+    }
 
-            if (path.startsWith("/")) {
-                path = path.substring(1); // bucket/object/name...
+    @Override
+    public boolean fileExists(String fileUrl) {
+        String objectName = getObjectName(fileUrl);
+        if (objectName == null) {
+            return false;
+        }
+        try {
+            return objectExists(objectName);
+        } catch (Exception e) {
+            throw new RuntimeException("Error checking file on MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tên object trong bucket mặc định từ URL public; null nếu URL không thuộc bucket này.
+     */
+    @Override
+    public String getObjectName(String fileUrl) {
+        try {
+            String path = new URI(fileUrl).getPath();
+            String bucketPrefix = "/" + defaultBucketName + "/";
+            if (path == null || !path.startsWith(bucketPrefix)) {
+                return null;
             }
+            return path.substring(bucketPrefix.length()); // getPath() đã decode
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-            int firstSlashIndex = path.indexOf('/');
-            if (firstSlashIndex > 0) {
-                String extractedBucketName = path.substring(0, firstSlashIndex);
-                String rawObjectName = path.substring(firstSlashIndex + 1);
-                
-                // Decode URL để lấy tên object gốc (ví dụ xử lý %20, dấu cách, v.v.)
-                String objectName = URLDecoder.decode(rawObjectName, StandardCharsets.UTF_8);
-
-                minioClient.removeObject(
-                        RemoveObjectArgs.builder()
-                                .bucket(extractedBucketName)
-                                .object(objectName)
-                                .build()
-                );
-                log.info("Removed file from MinIO bucket {}: {}", extractedBucketName, objectName);
-            } else {
+    @Override
+    public String getFileUrl(String objectName) {
+        return minioUrl + "/" + defaultBucketName + "/" + objectName;
+    }
+
+    /**
+     * URL PUT có chữ ký để client upload thẳng lên MinIO, không đi qua app server.
+     */
+    @Override
+    public String createPresignedUploadUrl(String objectName, int expirySeconds) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(Method.PUT)
+                    .bucket(defaultBucketName)
+                    .object(objectName)
+                    .expiry(expirySeconds)
+                    .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Error creating presigned upload URL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Metadata object trong bucket mặc định; null nếu object chưa tồn tại.
+     */
+    @Override
+    public StoredObject statFile(String objectName) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder().bucket(defaultBucketName).object(objectName).build());
+            return new StoredObject(objectName, stat.size(), stat.contentType());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code()) || "NoSuchObject".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw new RuntimeException("Error reading file metadata from MinIO: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading file metadata from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean objectExists(String objectName) throws Exception {
+        try {
+            minioClient.statObject(StatObjectArgs.builder().bucket(defaultBucketName).object(objectName).build());
+            return true;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code()) || "NoSuchObject".equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void removeFile(String fileUrl) {
+        try {
+            String[] location = parseLocation(fileUrl);
+            if (location == null) {
                 log.warn("Invalid MinIO URL path format, cannot extract bucket and object name: {}", fileUrl);
+                return;
+            }
+            if (location[1].startsWith(CONTENT_ADDRESSED_PREFIX) && location[0].equals(defaultBucketName)) {
+                releaseReference(location[1]);
+                return;
             }
+            removeObject(location[0], location[1]);
+            removeDerivatives(location[0], List.of(location[1]));
         } catch (Exception e) {
             log.error("Error removing file from MinIO: {}", fileUrl, e);
         }
     }
+
+    /**
+     * Xóa nhiều file (URL) với số round trip tối thiểu: object content-addressed được giảm REF_COUNT
+     * trong một transaction (khóa các dòng theo thứ tự tên), object hết tham chiếu và object thường
+     * được xóa bằng một lệnh bulk mỗi bucket. Trả về các URL chưa xóa được để lần sau thử lại.
+     */
+    @Override
+    public Set<String> removeFiles(Collection<String> fileUrls) {
+        Map<String, List<String>> urlsByObject = new HashMap<>();         // object content-addressed -> URL
+        Map<String, Map<String, List<String>>> legacyByBucket = new HashMap<>(); // bucket -> object -> URL
+        for (String fileUrl : fileUrls) {
+            String[] location = parseLocation(fileUrl);
+            if (location == null) {
+                log.warn("Invalid MinIO URL path format, cannot extract bucket and object name: {}", fileUrl);
+                continue;
+            }
+            if (location[1].startsWith(CONTENT_ADDRESSED_PREFIX) && location[0].equals(defaultBucketName)) {
+                urlsByObject.computeIfAbsent(location[1], k -> new ArrayList<>()).add(fileUrl);
+            } else {
+                legacyByBucket.computeIfAbsent(location[0], k -> new HashMap<>())
+                        .computeIfAbsent(location[1], k -> new ArrayList<>()).add(fileUrl);
+            }
+        }
+
+        Set<String> failedUrls = new HashSet<>();
+        if (!urlsByObject.isEmpty()) {
+            try {
+                releaseReferences(urlsByObject);
+            } catch (Exception e) {
+                // Transaction rollback: REF_COUNT giữ nguyên, lần sau xử lý lại (xóa object là idempotent)
+                log.error("Failed to release {} content-addressed objects", urlsByObject.size(), e);
+                urlsByObject.values().forEach(failedUrls::addAll);
+            }
+        }
+        legacyByBucket.forEach((bucketName, urlsByLegacyObject) -> {
+            Set<String> failedObjects = bulkRemove(bucketName, urlsByLegacyObject.keySet());
+            for (String failedObject : failedObjects) {
+                failedUrls.addAll(urlsByLegacyObject.getOrDefault(failedObject, List.of()));
+            }
+            removeDerivatives(bucketName, urlsByLegacyObject.keySet().stream()
+                    .filter(objectName -> !failedObjects.contains(objectName))
+                    .toList());
+        });
+        return failedUrls;
+    }
+
+    private void releaseReferences(Map<String, List<String>> urlsByObject) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> objectNames = urlsByObject.keySet().stream().sorted().toList();
+            Map<String, BlobReferenceEntity> references = new HashMap<>();
+            blobReferenceRepository.findAllForUpdate(objectNames)
+                    .forEach(reference -> references.put(reference.getObjectName(), reference));
+
+            List<String> unreferenced = new ArrayList<>();
+            List<BlobReferenceEntity> toDelete = new ArrayList<>();
+            for (String objectName : objectNames) {
+                BlobReferenceEntity reference = references.get(objectName);
+                if (reference == null) {
+                    unreferenced.add(objectName);
+                    continue;
+                }
+                // Mỗi URL (mỗi dòng TemporaryFile) ứng với một lần upload = một tham chiếu
+                int remaining = reference.getRefCount() - urlsByObject.get(objectName).size();
+                if (remaining > 0) {
+                    reference.setRefCount(remaining);
+                } else {
+                    toDelete.add(reference);
+                    unreferenced.add(objectName);
+                }
+            }
+            blobReferenceRepository.deleteAllInBatch(toDelete);
+            blobReferenceRepository.flush();
+
+            Set<String> failed = bulkRemove(defaultBucketName, unreferenced);
+            if (!failed.isEmpty()) {
+                throw new IllegalStateException("Could not remove " + failed.size() + " objects from MinIO");
+            }
+            removeDerivatives(defaultBucketName, unreferenced);
+        });
+    }
+
+    /**
+     * [bucket, objectName] từ URL public; null nếu URL không đúng định dạng.
+     */
+    private String[] parseLocation(String fileUrl) {
+        try {
+            // Sử dụng URI để parse path, tránh phụ thuộc vào domain (localhost vs 127.0.0.1)
+            String path = new URI(fileUrl).getPath(); // Trả về /bucket/object/name...
+            if (path.startsWith("/")) {
+                path = path.substring(1);
+            }
+            int firstSlashIndex = path.indexOf('/');
+            if (firstSlashIndex <= 0) {
+                return null;
+            }
+            // Decode URL để lấy tên object gốc (ví dụ xử lý %20, dấu cách, v.v.)
+            String objectName = URLDecoder.decode(path.substring(firstSlashIndex + 1), StandardCharsets.UTF_8);
+            return new String[]{path.substring(0, firstSlashIndex), objectName};
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Giảm REF_COUNT trong transaction riêng, giữ khóa dòng trong lúc xóa object
+     * để upload cùng nội dung chạy song song phải chờ và upload lại nếu cần.
+     */
+    private void releaseReference(String objectName) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> {
+            BlobReferenceEntity reference = blobReferenceRepository.findForUpdate(objectName).orElse(null);
+            if (reference == null) {
+                removeObject(defaultBucketName, objectName);
+                removeDerivatives(defaultBucketName, List.of(objectName));
+                return;
+            }
+
+            int remaining = reference.getRefCount() - 1;
+            if (remaining > 0) {
+                reference.setRefCount(remaining);
+                blobReferenceRepository.save(reference);
+                log.debug("Object {} still has {} references", objectName, remaining);
+                return;
+            }
+
+            blobReferenceRepository.delete(reference);
+            blobReferenceRepository.flush();
+            removeObject(defaultBucketName, objectName);
+            removeDerivatives(defaultBucketName, List.of(objectName));
+        });
+    }
+
+    /**
+     * Ảnh thu nhỏ (-w160/-w320/-w640.jpg) nằm cạnh ảnh gốc nên bị xóa cùng ảnh gốc; object không tồn tại
+     * thì DeleteObjects vẫn coi là thành công. Lỗi chỉ ghi log, không làm hỏng việc xóa ảnh gốc.
+     */
+    private void removeDerivatives(String bucketName, Collection<String> objectNames) {
+        if (objectNames.isEmpty()) {
+            return;
+        }
+        List<String> derivatives = objectNames.stream()
+                .flatMap(objectName -> ImageDerivatives.COVER_WIDTHS.stream()
+                        .map(width -> ImageDerivatives.derivativeName(objectName, width)))
+                .toList();
+        Set<String> failed = bulkRemove(bucketName, derivatives);
+        if (!failed.isEmpty()) {
+            log.warn("Could not remove {} image derivatives from bucket {}", failed.size(), bucketName);
+        }
+    }
+
+    private void removeObject(String bucketName, String objectName) {
+        try {
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .build()
+            );
+            log.info("Removed file from MinIO bucket {}: {}", bucketName, objectName);
+        } catch (Exception e) {
+            throw new RuntimeException("Error removing file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", file);
+        }
+    }
 }
@@ -0,0 +1,415 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.NarrationSegmenter;
+import com.ptit.story_speaker.common.utils.SseEmitterRegistry;
+import com.ptit.story_speaker.domain.dto.request.NarrationRequest;
+import com.ptit.story_speaker.domain.dto.request.VoiceGenerationRequest;
+import com.ptit.story_speaker.domain.dto.response.NarrationManifestResponse;
+import com.ptit.story_speaker.domain.entity.ChapterEntity;
+import com.ptit.story_speaker.domain.entity.NarrationManifestEntity;
+import com.ptit.story_speaker.domain.entity.NarrationSegmentEntity;
+import com.ptit.story_speaker.domain.mapper.NarrationMapper;
+import com.ptit.story_speaker.domain.model.enums.NarrationStatus;
+import com.ptit.story_speaker.repository.ChapterRepository;
+import com.ptit.story_speaker.repository.NarrationManifestRepository;
+import com.ptit.story_speaker.repository.NarrationSegmentRepository;
+import com.ptit.story_speaker.services.AIService;
+import com.ptit.story_speaker.services.NarrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tổng hợp trước audio cho cả chương: nội dung được tách thành segment (đoạn/câu) và xếp vào hàng đợi riêng của
+ * từng manifest. Các worker trên pool narrationExecutor lấy segment xoay vòng giữa các manifest đang chạy
+ * (trong một manifest theo thứ tự), nên chương mới yêu cầu có segment đầu sớm thay vì chờ hết các chương trước.
+ * Lỗi tạm thời của voice service (quá tải, ngắt mạch) được thử lại với backoff trước khi tính segment là lỗi.
+ * Kết quả ghi vào manifest có thứ tự, client poll hoặc nhận từng segment qua SSE và có thể phát ngay khi
+ * segment đầu sẵn sàng.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NarrationServiceImpl implements NarrationService {
+
+    private static final String DEFAULT_LANGUAGE = "vi";
+    private static final String MANIFEST_EVENT = "manifest";
+    private static final String SEGMENT_EVENT = "segment";
+
+    private final ChapterRepository chapterRepository;
+    private final NarrationManifestRepository manifestRepository;
+    private final NarrationSegmentRepository segmentRepository;
+    private final NarrationMapper narrationMapper;
+    private final AIService aiService;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("narrationExecutor")
+    private final ThreadPoolTaskExecutor narrationExecutor;
+    @Qualifier("narrationRetryScheduler")
+    private final ScheduledExecutorService narrationRetryScheduler;
+
+    // manifestId -> các client đang theo dõi
+    private final SseEmitterRegistry emitters = new SseEmitterRegistry();
+
+    @Value("${story.narration.max-segment-chars:500}")
+    private int maxSegmentChars;
+
+    @Value("${story.narration.sse-timeout-ms:600000}")
+    private long sseTimeoutMs;
+
+    @Value("${story.narration.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${story.narration.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    // Các manifest còn segment chờ, worker lấy xoay vòng; run nằm trong hàng đợi khi và chỉ khi pending khác rỗng
+    private final Object scheduleLock = new Object();
+    private final Deque<ManifestRun> readyRuns = new ArrayDeque<>();
+    // manifestId -> lượt đang chạy, để hủy lượt cũ khi manifest bị dựng lại (truy cập dưới scheduleLock)
+    private final Map<String, ManifestRun> activeRuns = new HashMap<>();
+    private int activeWorkers;
+
+    /**
+     * Một lượt tổng hợp đang chạy của manifest: các segment chờ (theo thứ tự, truy cập dưới scheduleLock)
+     * và số segment chưa có kết quả cuối để biết khi nào kết thúc.
+     * cancelled = true khi manifest bị dựng lại: segment đang tổng hợp dở bỏ kết quả, không retry, không finish.
+     */
+    private record ManifestRun(String manifestId, String voiceId, String language, Deque<PendingSegment> pending,
+                               AtomicInteger remaining, AtomicInteger failed, AtomicBoolean cancelled) {
+    }
+
+    private record PendingSegment(ManifestRun run, NarrationSegmentEntity segment, int attempt) {
+    }
+
+    /**
+     * Tiếp tục các manifest đang dở khi server khởi động lại (segment đã xong không bị tổng hợp lại).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeProcessingManifests() {
+        for (NarrationManifestEntity manifest : manifestRepository.findByStatus(NarrationStatus.PROCESSING)) {
+            List<NarrationSegmentEntity> pending = segmentRepository
+                    .findByManifestIdAndStatusOrderBySegmentIndex(manifest.getId(), NarrationStatus.PENDING);
+            log.info("Resuming narration manifest {} with {} pending segments", manifest.getId(), pending.size());
+            start(manifest, pending);
+        }
+    }
+
+    @Override
+    public NarrationManifestResponse requestNarration(NarrationRequest request) {
+        ChapterEntity chapter = chapterRepository.findById(request.getChapterId())
+                .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy chương"));
+        String language = StringUtils.hasText(request.getLanguage()) ? request.getLanguage().trim() : DEFAULT_LANGUAGE;
+        String contentHash = sha256(chapter.getContent() != null ? chapter.getContent() : "");
+
+        NarrationManifestEntity existing = manifestRepository
+                .findByChapterIdAndVoiceIdAndLanguage(chapter.getId(), request.getVoiceId(), language)
+                .orElse(null);
+        // Manifest còn đúng nội dung và chưa lỗi thì dùng lại (đang chạy hoặc đã xong)
+        if (existing != null && contentHash.equals(existing.getContentHash())
+                && existing.getStatus() != NarrationStatus.FAILED) {
+            return toResponse(existing);
+        }
+
+        if (existing != null) {
+            cancelRun(existing.getId());
+        }
+
+        List<String> texts = NarrationSegmenter.segment(chapter.getContent(), maxSegmentChars);
+        NarrationManifestEntity manifest;
+        List<NarrationSegmentEntity> segments = new ArrayList<>();
+        try {
+            manifest = new TransactionTemplate(transactionManager).execute(status -> {
+                if (existing != null) {
+                    // Dựng manifest mới (id mới); lượt cũ đã bị hủy ở trên nên worker không ghi vào bản ghi cũ nữa
+                    segmentRepository.deleteByManifestId(existing.getId());
+                    manifestRepository.deleteById(existing.getId());
+                    manifestRepository.flush();
+                }
+                LocalDateTime now = LocalDateTime.now();
+                NarrationManifestEntity saved = manifestRepository.save(NarrationManifestEntity.builder()
+                        .chapterId(chapter.getId())
+                        .voiceId(request.getVoiceId())
+                        .language(language)
+                        .contentHash(contentHash)
+                        .status(texts.isEmpty() ? NarrationStatus.READY : NarrationStatus.PROCESSING)
+                        .totalSegments(texts.size())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build());
+                for (int i = 0; i < texts.size(); i++) {
+                    segments.add(NarrationSegmentEntity.builder()
+                            .manifestId(saved.getId())
+                            .segmentIndex(i)
+                            .text(texts.get(i))
+                            .status(NarrationStatus.PENDING)
+                            .build());
+                }
+                segmentRepository.saveAll(segments);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Request khác vừa tạo manifest cho cùng chương/giọng
+            return manifestRepository.findByChapterIdAndVoiceIdAndLanguage(chapter.getId(), request.getVoiceId(), language)
+                    .map(this::toResponse)
+                    .orElseThrow(() -> e);
+        }
+
+        start(Objects.requireNonNull(manifest), segments);
+        NarrationManifestResponse response = toResponse(manifest);
+        if (existing != null) {
+            // Client đang theo dõi manifest cũ nhận manifest mới (id mới) rồi đóng stream
+            emitters.complete(existing.getId(), MANIFEST_EVENT, response);
+        }
+        return response;
+    }
+
+    @Override
+    public NarrationManifestResponse getManifest(String manifestId) {
+        return toResponse(findManifest(manifestId));
+    }
+
+    @Override
+    public SseEmitter subscribe(String manifestId) {
+        NarrationManifestEntity manifest = findManifest(manifestId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event().name(MANIFEST_EVENT).data(toResponse(manifest)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        if (manifest.getStatus() != NarrationStatus.PROCESSING) {
+            emitter.complete();
+            return emitter;
+        }
+        emitters.register(manifestId, emitter);
+
+        // Manifest có thể đã xong giữa lúc đọc trạng thái và đăng ký
+        manifestRepository.findById(manifestId)
+                .filter(latest -> latest.getStatus() != NarrationStatus.PROCESSING)
+                .ifPresent(latest -> emitters.complete(manifestId, MANIFEST_EVENT, toResponse(latest)));
+        return emitter;
+    }
+
+    private void start(NarrationManifestEntity manifest, List<NarrationSegmentEntity> segments) {
+        ManifestRun run = new ManifestRun(manifest.getId(), manifest.getVoiceId(), manifest.getLanguage(),
+                new ArrayDeque<>(), new AtomicInteger(segments.size()), new AtomicInteger(manifest.getFailedSegments()),
+                new AtomicBoolean());
+        if (segments.isEmpty()) {
+            if (manifest.getStatus() == NarrationStatus.PROCESSING) {
+                finish(run);
+            }
+            return;
+        }
+        synchronized (scheduleLock) {
+            for (NarrationSegmentEntity segment : segments) {
+                run.pending().addLast(new PendingSegment(run, segment, 1));
+            }
+            readyRuns.addLast(run);
+            activeRuns.put(run.manifestId(), run);
+        }
+        startWorkers();
+    }
+
+    /**
+     * Hủy lượt đang chạy của manifest: bỏ các segment còn chờ khỏi hàng đợi, segment đang tổng hợp dở bị bỏ qua khi xong.
+     */
+    private void cancelRun(String manifestId) {
+        ManifestRun run;
+        synchronized (scheduleLock) {
+            run = activeRuns.remove(manifestId);
+            if (run == null) {
+                return;
+            }
+            run.cancelled().set(true);
+            run.pending().clear();
+            readyRuns.remove(run);
+        }
+        log.info("Cancelled narration run of manifest {} (rebuilt)", manifestId);
+    }
+
+    /**
+     * Giữ tối đa pool-size worker; mỗi worker lấy segment cho đến khi không còn manifest nào chờ.
+     */
+    private void startWorkers() {
+        synchronized (scheduleLock) {
+            int maxWorkers = narrationExecutor.getCorePoolSize();
+            while (activeWorkers < maxWorkers && !readyRuns.isEmpty()) {
+                try {
+                    narrationExecutor.execute(this::runWorker);
+                    activeWorkers++;
+                } catch (TaskRejectedException e) {
+                    log.warn("Narration executor rejected a worker: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            PendingSegment next;
+            synchronized (scheduleLock) {
+                next = pollNextSegment();
+                if (next == null) {
+                    activeWorkers--;
+                    return;
+                }
+            }
+            synthesizeSegment(next);
+        }
+    }
+
+    // Gọi dưới scheduleLock: lấy segment kế tiếp của manifest đầu hàng rồi đưa manifest xuống cuối (round-robin)
+    private PendingSegment pollNextSegment() {
+        ManifestRun run = readyRuns.pollFirst();
+        if (run == null) {
+            return null;
+        }
+        PendingSegment next = run.pending().pollFirst();
+        if (!run.pending().isEmpty()) {
+            readyRuns.addLast(run);
+        }
+        return next;
+    }
+
+    private void synthesizeSegment(PendingSegment pending) {
+        ManifestRun run = pending.run();
+        NarrationSegmentEntity segment = pending.segment();
+        String audioUrl = null;
+        try {
+            VoiceGenerationRequest voiceRequest = new VoiceGenerationRequest();
+            voiceRequest.setText(segment.getText());
+            voiceRequest.setVoiceId(run.voiceId());
+            voiceRequest.setLanguage(run.language());
+            // Đi qua cache tổng hợp: đoạn đã đọc bằng giọng này không phải tổng hợp lại
+            audioUrl = aiService.generateVoice(voiceRequest);
+        } catch (AppException e) {
+            if (isTransient(e) && pending.attempt() < maxAttempts && scheduleRetry(pending)) {
+                return;
+            }
+            log.warn("Failed to synthesize segment {} of manifest {}: {}", segment.getSegmentIndex(), run.manifestId(), e.getMessage());
+        } catch (Exception e) {
+            log.warn("Failed to synthesize segment {} of manifest {}: {}", segment.getSegmentIndex(), run.manifestId(), e.getMessage());
+        }
+        completeSegment(run, segment, audioUrl);
+    }
+
+    private boolean isTransient(AppException e) {
+        return e.getErrorCode() == ErrorCode.VOICE_SERVICE_BUSY || e.getErrorCode() == ErrorCode.VOICE_SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Đưa segment trở lại đầu hàng đợi của manifest sau backoff (tăng gấp đôi mỗi lần), không giữ worker chờ.
+     */
+    private boolean scheduleRetry(PendingSegment pending) {
+        long delayMs = retryBackoffMs << Math.min(pending.attempt() - 1, 10);
+        PendingSegment retry = new PendingSegment(pending.run(), pending.segment(), pending.attempt() + 1);
+        try {
+            narrationRetryScheduler.schedule(() -> {
+                synchronized (scheduleLock) {
+                    ManifestRun run = retry.run();
+                    if (run.cancelled().get()) {
+                        return;
+                    }
+                    if (run.pending().isEmpty()) {
+                        readyRuns.addLast(run);
+                    }
+                    run.pending().addFirst(retry);
+                }
+                startWorkers();
+            }, delayMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void completeSegment(ManifestRun run, NarrationSegmentEntity segment, String audioUrl) {
+        if (run.cancelled().get()) {
+            return;
+        }
+        boolean ready = audioUrl != null;
+        try {
+            segment.setAudioUrl(audioUrl);
+            segment.setStatus(ready ? NarrationStatus.READY : NarrationStatus.FAILED);
+            segmentRepository.updateResult(segment.getId(), segment.getStatus(), audioUrl);
+            manifestRepository.addSegmentResult(run.manifestId(), ready ? 1 : 0, ready ? 0 : 1, LocalDateTime.now());
+            emitters.send(run.manifestId(), SEGMENT_EVENT, narrationMapper.toSegmentResponse(segment));
+        } catch (Exception e) {
+            log.error("Failed to record narration segment {} of manifest {}", segment.getSegmentIndex(), run.manifestId(), e);
+        } finally {
+            if (!ready) {
+                run.failed().incrementAndGet();
+            }
+            if (run.remaining().decrementAndGet() == 0) {
+                finish(run);
+            }
+        }
+    }
+
+    private void finish(ManifestRun run) {
+        synchronized (scheduleLock) {
+            activeRuns.remove(run.manifestId(), run);
+        }
+        // Có segment lỗi thì manifest FAILED; gọi lại requestNarration sẽ dựng lại, segment đã có audio lấy từ cache
+        NarrationStatus status = run.failed().get() == 0 ? NarrationStatus.READY : NarrationStatus.FAILED;
+        manifestRepository.updateStatus(run.manifestId(), status, LocalDateTime.now());
+        manifestRepository.findById(run.manifestId())
+                .ifPresent(manifest -> emitters.complete(run.manifestId(), MANIFEST_EVENT, toResponse(manifest)));
+        log.info("Narration manifest {} finished with status {}", run.manifestId(), status);
+    }
+
+    private NarrationManifestEntity findManifest(String manifestId) {
+        return manifestRepository.findById(manifestId)
+                .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy manifest audio"));
+    }
+
+    private NarrationManifestResponse toResponse(NarrationManifestEntity manifest) {
+        NarrationManifestResponse response = narrationMapper.toManifestResponse(manifest);
+        response.setSegments(narrationMapper.toSegmentResponseList(
+                segmentRepository.findByManifestIdOrderBySegmentIndex(manifest.getId())));
+        return response;
+    }
+
+    private String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
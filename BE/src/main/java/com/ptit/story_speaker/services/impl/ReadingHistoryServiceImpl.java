@@ -0,0 +1,109 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.services.ReadingHistoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer cho lastSeen: mỗi lượt xem truyện chỉ ghi vào bộ nhớ (gộp theo userId + storyId,
+ * giữ thời điểm mới nhất), định kỳ flush xuống USER_STORY_LIBRARY bằng một batch upsert.
+ * "Đọc gần đây" có độ trễ tối đa bằng chu kỳ flush.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingHistoryServiceImpl implements ReadingHistoryService {
+
+    // Bỏ qua truyện đã bị xóa trong lúc chờ flush (WHERE EXISTS) và giữ lastSeen lớn nhất khi trùng
+    private static final String UPSERT_LAST_SEEN_SQL =
+            "INSERT INTO USER_STORY_LIBRARY " +
+            "(ID, USER_ID, STORY_ID, LAST_SEEN, IS_FAVORITE, IS_DOWNLOADED, IS_COMPLETED, IS_WEB_VIEW, CREATED_BY, CREATE_DATE) " +
+            "SELECT ?, ?, ?, ?, FALSE, FALSE, FALSE, TRUE, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM STORY WHERE ID = ?) " +
+            "ON CONFLICT (USER_ID, STORY_ID) DO UPDATE " +
+            "SET LAST_SEEN = GREATEST(USER_STORY_LIBRARY.LAST_SEEN, EXCLUDED.LAST_SEEN)";
+
+    private final JdbcTemplate jdbcTemplate;
+    @Qualifier("readingHistoryFlushExecutor")
+    private final ThreadPoolTaskExecutor readingHistoryFlushExecutor;
+
+    private final Map<ViewKey, LocalDateTime> pendingViews = new ConcurrentHashMap<>();
+
+    @Value("${story.reading-history.max-pending:50000}")
+    private int maxPending;
+
+    private record ViewKey(String userId, String storyId) {
+    }
+
+    @Override
+    public void recordView(String userId, String storyId) {
+        ViewKey key = new ViewKey(userId, storyId);
+        if (pendingViews.size() >= maxPending) {
+            // Buffer đầy (DB chậm): giao flush cho executor riêng, không chặn request đang xem truyện;
+            // trong lúc chờ chỉ gộp vào key đã có, lượt xem mới bị bỏ (lastSeen chỉ là best-effort)
+            readingHistoryFlushExecutor.execute(this::flush);
+            if (!pendingViews.containsKey(key)) {
+                return;
+            }
+        }
+        pendingViews.merge(key, LocalDateTime.now(),
+                (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+    }
+
+    @Scheduled(fixedDelayString = "${story.reading-history.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+
+        List<ViewKey> keys = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ViewKey key : new ArrayList<>(pendingViews.keySet())) {
+            LocalDateTime lastSeen = pendingViews.remove(key);
+            if (lastSeen != null) {
+                keys.add(key);
+                batch.add(new Object[]{
+                        UUID.randomUUID().toString(), key.userId(), key.storyId(), lastSeen,
+                        key.userId(), now, key.storyId()
+                });
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_LAST_SEEN_SQL, batch);
+            log.debug("Flushed {} lastSeen updates", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush {} lastSeen updates, re-queueing", batch.size(), e);
+            for (int i = 0; i < keys.size(); i++) {
+                LocalDateTime lastSeen = (LocalDateTime) batch.get(i)[3];
+                pendingViews.merge(keys.get(i), lastSeen,
+                        (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+            }
+        }
+    }
+}
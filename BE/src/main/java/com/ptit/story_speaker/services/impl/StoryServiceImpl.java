@@ -2,14 +2,24 @@ package com.ptit.story_speaker.services.impl;
 
 import com.ptit.story_speaker.common.exceptions.AppException;
 import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.CursorCodec;
+import com.ptit.story_speaker.common.utils.ImageDerivatives;
+import com.ptit.story_speaker.common.utils.TextNormalizer;
 import com.ptit.story_speaker.domain.dto.request.*;
 import com.ptit.story_speaker.domain.dto.response.ChapterResponse;
+import com.ptit.story_speaker.domain.dto.response.CursorPageResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryCardResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryExtractionResponse;
 import com.ptit.story_speaker.domain.dto.response.StoryResponse;
 import com.ptit.story_speaker.domain.entity.*;
 import com.ptit.story_speaker.domain.mapper.ChapterMapper;
 import com.ptit.story_speaker.domain.mapper.StoryMapper;
+import com.ptit.story_speaker.domain.model.ChapterContentSegment;
+import com.ptit.story_speaker.domain.model.ContentVersion;
+import com.ptit.story_speaker.domain.model.StoryVersionView;
+import com.ptit.story_speaker.domain.model.LibraryCardView;
+import com.ptit.story_speaker.domain.model.RankedCardView;
+import com.ptit.story_speaker.domain.model.StoryCardView;
 import com.ptit.story_speaker.domain.model.enums.Role;
 import com.ptit.story_speaker.domain.model.enums.StoryCategory;
 import com.ptit.story_speaker.domain.model.enums.StoryStatus;
@@ -18,17 +28,24 @@ import com.ptit.story_speaker.repository.StoryRepository;
 import com.ptit.story_speaker.repository.TemporaryFileRepository;
 import com.ptit.story_speaker.repository.UserRepository;
 import com.ptit.story_speaker.repository.UserStoryLibraryRepository;
-import com.ptit.story_speaker.services.EpubService;
+import com.ptit.story_speaker.services.ContentCacheService;
+import com.ptit.story_speaker.services.ImageDerivativeService;
 import com.ptit.story_speaker.services.MinioService;
+import com.ptit.story_speaker.services.ReadingHistoryService;
 import com.ptit.story_speaker.services.StoryService;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.Predicate;
+import com.ptit.story_speaker.services.UploadService;
+import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.input.CharSequenceInputStream;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
 import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
@@ -36,19 +53,34 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StoryServiceImpl implements StoryService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+    private static final char LIKE_ESCAPE = '\\';
+    private static final int CONFIRM_BATCH_SIZE = 1000;
+
     private final StoryRepository storyRepository;
     private final UserRepository userRepository;
     private final ChapterRepository chapterRepository;
@@ -56,8 +88,32 @@ public class StoryServiceImpl implements StoryService {
     private final MinioService minioService;
     private final StoryMapper storyMapper;
     private final ChapterMapper chapterMapper;
-    private final EpubService epubService;
     private final TemporaryFileRepository temporaryFileRepository;
+    private final ReadingHistoryService readingHistoryService;
+    private final ContentCacheService contentCacheService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final UploadService uploadService;
+    @Qualifier("imageUploadExecutor")
+    private final ExecutorService imageUploadExecutor;
+    @Qualifier("uploadPermits")
+    private final Semaphore uploadPermits;
+
+    @Value("${story.upload.inline-image.max-bytes:10485760}")
+    private long maxInlineImageBytes;
+
+    @Value("${story.upload.inline-image.max-request-bytes:52428800}")
+    private long maxInlineRequestBytes;
+
+    /**
+     * Ảnh base64 nhúng trong các chương của một request: src tạm là placeholder, upload chạy song song,
+     * xong hết mới thay placeholder bằng URL MinIO.
+     */
+    private static class InlineImageBatch {
+        private final String placeholderPrefix = "inline-img-" + UUID.randomUUID() + "-";
+        private final Pattern placeholderPattern = Pattern.compile(Pattern.quote(placeholderPrefix) + "(\\d+)");
+        private final List<CompletableFuture<String>> uploads = new ArrayList<>();
+        private long totalBytes;
+    }
 
     @Override
     @Transactional
@@ -75,6 +131,13 @@ public class StoryServiceImpl implements StoryService {
             }
         }
 
+        // Ảnh upload trực tiếp (presigned) được xác nhận khỏi bảng tạm khi lưu truyện
+        Set<String> usedImageUrls = new LinkedHashSet<>();
+        if (coverImageUrl == null && StringUtils.hasText(request.getCoverImageUrl())) {
+            coverImageUrl = requireDirectUpload(request.getCoverImageUrl());
+            usedImageUrls.add(coverImageUrl);
+        }
+
         StoryEntity newStory = new StoryEntity();
         newStory.setTitle(request.getTitle());
         newStory.setAuthor(request.getAuthor());
@@ -86,6 +149,7 @@ public class StoryServiceImpl implements StoryService {
         newStory.setCategories(request.getCategories());
 
         StoryEntity savedStory = storyRepository.save(newStory);
+        imageDerivativeService.generateCoverThumbnails(coverImageUrl);
 
         if (request.getChapters() != null) {
             List<ChapterEntity> chaptersToSave = new ArrayList<>();
@@ -108,12 +172,14 @@ public class StoryServiceImpl implements StoryService {
                     }
                     chapter.setContent(contentWithImages.toString());
                 }
+                appendIllustrationUrls(chapter, chapReq.getIllustrationImageUrls(), usedImageUrls);
                 chaptersToSave.add(chapter);
             }
             chapterRepository.saveAll(chaptersToSave);
         }
+        confirmUsedImages(usedImageUrls, null);
 
-        return storyMapper.toStoryResponse(savedStory);
+        return toStoryDetailResponse(savedStory);
     }
 
     @Override
@@ -121,6 +187,7 @@ public class StoryServiceImpl implements StoryService {
     public StoryResponse updateStory(String id, StoryUpdateRequest request) {
         StoryEntity story = storyRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy truyện"));
+        contentCacheService.evictStory(id);
 
         if (request.getTitle() != null) story.setTitle(request.getTitle());
         if (request.getAuthor() != null) story.setAuthor(request.getAuthor());
@@ -129,15 +196,26 @@ public class StoryServiceImpl implements StoryService {
         if (request.getStoryStatus() != null) story.setStatus(request.getStoryStatus());
         if (request.getCategories() != null) story.setCategories(request.getCategories());
 
+        Set<String> usedImageUrls = new LinkedHashSet<>();
         if (request.getCoverImage() != null && !request.getCoverImage().isEmpty()) {
             try {
                 MultipartFile coverImage = request.getCoverImage();
                 String fileName = "cover-" + UUID.randomUUID().toString() + "-" + coverImage.getOriginalFilename();
                 String coverImageUrl = minioService.uploadFile(coverImage.getInputStream(), fileName, coverImage.getContentType());
                 story.setCoverImageUrl(coverImageUrl);
+                // Thumbnail của ảnh bìa cũ không còn đúng, sinh lại nền sau commit
+                story.setCoverThumbnailUrl(null);
+                imageDerivativeService.generateCoverThumbnails(coverImageUrl);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to upload cover image", e);
             }
+        } else if (StringUtils.hasText(request.getCoverImageUrl())
+                && !request.getCoverImageUrl().equals(story.getCoverImageUrl())) {
+            String coverImageUrl = requireDirectUpload(request.getCoverImageUrl());
+            story.setCoverImageUrl(coverImageUrl);
+            story.setCoverThumbnailUrl(null);
+            usedImageUrls.add(coverImageUrl);
+            imageDerivativeService.generateCoverThumbnails(coverImageUrl);
         }
 
         StoryEntity savedStory = storyRepository.save(story);
@@ -195,6 +273,7 @@ public class StoryServiceImpl implements StoryService {
                     }
                     chapter.setContent(contentWithImages.toString());
                 }
+                appendIllustrationUrls(chapter, chapReq.getIllustrationImageUrls(), usedImageUrls);
                 chaptersToSave.add(chapter);
             }
             chapterRepository.saveAll(chaptersToSave);
@@ -203,8 +282,9 @@ public class StoryServiceImpl implements StoryService {
                  chapterRepository.deleteAll(story.getChapters());
             }
         }
+        confirmUsedImages(usedImageUrls, null);
 
-        return storyMapper.toStoryResponse(storyRepository.findById(id).orElse(savedStory));
+        return toStoryDetailResponse(savedStory);
     }
 
     @Override
@@ -223,40 +303,48 @@ public class StoryServiceImpl implements StoryService {
         newStory.setCategories(request.getCategories());
         newStory.setStatus(request.getStatus());
 
-        // Confirm cover image if it exists
+        // Mọi URL ảnh được dùng (cover + ảnh trong chương), xác nhận một lần ở cuối
+        Set<String> usedImageUrls = new LinkedHashSet<>();
         if (request.getCoverImageUrl() != null && !request.getCoverImageUrl().isEmpty()) {
-            temporaryFileRepository.deleteByFileUrl(request.getCoverImageUrl());
+            usedImageUrls.add(request.getCoverImageUrl());
         }
 
         StoryEntity savedStory = storyRepository.save(newStory);
+        contentCacheService.evictStory(savedStory.getId());
+        imageDerivativeService.generateCoverThumbnails(savedStory.getCoverImageUrl());
 
         if (request.getChapters() != null) {
             List<ChapterEntity> chaptersToSave = new ArrayList<>();
+            InlineImageBatch inlineImages = new InlineImageBatch();
+            // Ảnh nhúng lên MinIO ngoài transaction: rollback ở bất kỳ bước nào (parse, upload, lưu chương, commit) thì xóa
+            discardInlineImagesOnRollback(inlineImages);
             for (ChapterSaveRequest chapReq : request.getChapters()) {
                 ChapterEntity chapter = new ChapterEntity();
                 chapter.setStory(savedStory);
                 chapter.setChapterNumber(chapReq.getChapterNumber());
                 chapter.setTitle(chapReq.getTitle());
 
-                String processedContent = processChapterContent(chapReq.getContent());
-                chapter.setContent(processedContent);
-
-                // Xác nhận các ảnh trong content là chính thức (xóa khỏi bảng tạm)
-                confirmUsedImages(processedContent);
-
+                chapter.setContent(processChapterContent(chapReq.getContent(), usedImageUrls, inlineImages));
                 chaptersToSave.add(chapter);
             }
+            List<String> inlineImageUrls = awaitInlineImages(inlineImages);
+            if (!inlineImageUrls.isEmpty()) {
+                for (ChapterEntity chapter : chaptersToSave) {
+                    chapter.setContent(replaceInlinePlaceholders(chapter.getContent(), inlineImages, inlineImageUrls));
+                }
+            }
             chapterRepository.saveAll(chaptersToSave);
         }
 
-        return storyMapper.toStoryResponse(savedStory);
+        // Xác nhận các ảnh trong content là chính thức (xóa khỏi bảng tạm)
+        confirmUsedImages(usedImageUrls, request.getUploadSessionId());
+
+        return toStoryDetailResponse(savedStory);
     }
 
     @Override
     @Transactional
-    public StoryResponse importEpub(MultipartFile file) throws IOException {
-        StoryExtractionResponse extracted = epubService.extractStoryFromEpub(file);
-
+    public StoryResponse saveImportedStory(StoryExtractionResponse extracted) {
         StorySaveRequest saveRequest = new StorySaveRequest();
         saveRequest.setTitle(extracted.getTitle() != null ? extracted.getTitle() : "Untitled Story");
         saveRequest.setAuthor(extracted.getAuthor());
@@ -265,6 +353,7 @@ public class StoryServiceImpl implements StoryService {
         saveRequest.setCoverImageUrl(extracted.getCoverImageUrl());
         saveRequest.setCategories(extracted.getCategories());
         saveRequest.setStatus(StoryStatus.DRAFT);
+        saveRequest.setUploadSessionId(extracted.getUploadSessionId());
 
         if (extracted.getChapters() != null) {
             List<ChapterSaveRequest> chapterRequests = extracted.getChapters().stream().map(chap -> {
@@ -280,7 +369,11 @@ public class StoryServiceImpl implements StoryService {
         return saveExtractedStory(saveRequest);
     }
 
-    private String processChapterContent(String htmlContent) {
+    /**
+     * Parse chương một lần: ảnh data URI được đẩy vào hàng đợi upload (src thay bằng placeholder),
+     * mọi URL ảnh còn lại được gom vào {@code usedImageUrls}.
+     */
+    private String processChapterContent(String htmlContent, Set<String> usedImageUrls, InlineImageBatch inlineImages) {
         if (htmlContent == null || htmlContent.isEmpty()) {
             return htmlContent;
         }
@@ -291,33 +384,137 @@ public class StoryServiceImpl implements StoryService {
         for (Element img : images) {
             String src = img.attr("src");
             if (src.startsWith("data:image")) {
-                // Decode Base64 image
-                String[] parts = src.split(",");
-                String mimeType = parts[0].substring(parts[0].indexOf(":") + 1, parts[0].indexOf(";"));
-                String base64Image = parts[1];
-                byte[] imageBytes = Base64.getDecoder().decode(base64Image);
-
-                // Upload to MinIO
-                String fileName = "image-" + UUID.randomUUID().toString();
-                String imageUrl = minioService.uploadFile(new ByteArrayInputStream(imageBytes), fileName, mimeType);
-
-                // Replace src with MinIO URL
-                img.attr("src", imageUrl);
+                img.attr("src", submitInlineImage(src, inlineImages));
+            } else if (!src.isEmpty()) {
+                usedImageUrls.add(src);
             }
         }
         return doc.body().html();
     }
 
-    private void confirmUsedImages(String htmlContent) {
-        if (htmlContent == null || htmlContent.isEmpty()) return;
+    /**
+     * Kiểm tra giới hạn dung lượng rồi upload ảnh base64 ở nền: giải mã dạng stream ngay trên chuỗi src,
+     * không tạo mảng byte của cả ảnh. Trả về placeholder thay cho src.
+     */
+    private String submitInlineImage(String src, InlineImageBatch batch) {
+        int semicolonIndex = src.indexOf(';');
+        int commaIndex = src.indexOf(',');
+        if (semicolonIndex < 0 || commaIndex < semicolonIndex || !src.startsWith(";base64", semicolonIndex)) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Ảnh nhúng không phải data URI base64 hợp lệ");
+        }
+        String mimeType = src.substring(src.indexOf(':') + 1, semicolonIndex);
 
-        Document doc = Jsoup.parse(htmlContent);
-        Elements images = doc.select("img");
+        // Ước lượng trên (4 ký tự base64 = 3 byte) để chặn trước khi upload
+        long estimatedBytes = (long) (src.length() - commaIndex - 1) * 3 / 4;
+        if (estimatedBytes > maxInlineImageBytes) {
+            throw new AppException(ErrorCode.PAYLOAD_TOO_LARGE, "Ảnh nhúng vượt quá " + maxInlineImageBytes + " bytes");
+        }
+        batch.totalBytes += estimatedBytes;
+        if (batch.totalBytes > maxInlineRequestBytes) {
+            throw new AppException(ErrorCode.PAYLOAD_TOO_LARGE, "Tổng dung lượng ảnh nhúng vượt quá " + maxInlineRequestBytes + " bytes");
+        }
 
-        for (Element img : images) {
-            String src = img.attr("src");
-            if (src != null && !src.startsWith("data:image")) {
-                temporaryFileRepository.deleteByFileUrl(src);
+        String fileName = "image-" + UUID.randomUUID();
+        CompletableFuture<String> upload = CompletableFuture.supplyAsync(() -> {
+            uploadPermits.acquireUninterruptibly();
+            // MIME decoder bỏ qua xuống dòng/khoảng trắng thường gặp trong base64 được dán vào
+            try (InputStream imageStream = Base64.getMimeDecoder().wrap(new CharSequenceInputStream(
+                    CharBuffer.wrap(src, commaIndex + 1, src.length()), StandardCharsets.US_ASCII))) {
+                return minioService.uploadFile(imageStream, fileName, mimeType);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to decode inline image", e);
+            } finally {
+                uploadPermits.release();
+            }
+        }, imageUploadExecutor);
+        batch.uploads.add(upload);
+        return batch.placeholderPrefix + (batch.uploads.size() - 1);
+    }
+
+    private List<String> awaitInlineImages(InlineImageBatch batch) {
+        List<String> urls = new ArrayList<>(batch.uploads.size());
+        for (CompletableFuture<String> upload : batch.uploads) {
+            try {
+                urls.add(upload.join());
+            } catch (CompletionException e) {
+                throw new RuntimeException("Failed to upload inline image", e.getCause());
+            }
+        }
+        return urls;
+    }
+
+    private void discardInlineImagesOnRollback(InlineImageBatch batch) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && !batch.uploads.isEmpty()) {
+                    discardInlineImages(batch);
+                }
+            }
+        });
+    }
+
+    /**
+     * Transaction rollback: chờ các upload đã submit rồi xóa những ảnh đã lên MinIO để không bị mồ côi.
+     */
+    private void discardInlineImages(InlineImageBatch batch) {
+        List<String> uploadedUrls = new ArrayList<>();
+        for (CompletableFuture<String> upload : batch.uploads) {
+            try {
+                uploadedUrls.add(upload.join());
+            } catch (CompletionException ignored) {
+                // Upload lỗi thì không có gì để xóa
+            }
+        }
+        if (!uploadedUrls.isEmpty()) {
+            minioService.removeFiles(uploadedUrls);
+        }
+    }
+
+    private String replaceInlinePlaceholders(String html, InlineImageBatch batch, List<String> urls) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        Matcher matcher = batch.placeholderPattern.matcher(html);
+        StringBuilder result = new StringBuilder(html.length());
+        while (matcher.find()) {
+            String url = urls.get(Integer.parseInt(matcher.group(1)));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(url));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Chỉ chấp nhận URL ảnh upload trực tiếp vào bucket của hệ thống (qua /uploads/presign).
+     */
+    private String requireDirectUpload(String fileUrl) {
+        uploadService.requireConfirmedUpload(fileUrl);
+        return fileUrl;
+    }
+
+    private void appendIllustrationUrls(ChapterEntity chapter, List<String> illustrationImageUrls, Set<String> usedImageUrls) {
+        if (illustrationImageUrls == null || illustrationImageUrls.isEmpty()) {
+            return;
+        }
+        StringBuilder contentWithImages = new StringBuilder(chapter.getContent() != null ? chapter.getContent() : "");
+        for (String imgUrl : illustrationImageUrls) {
+            requireDirectUpload(imgUrl);
+            contentWithImages.append(String.format("<br/><img src='%s' style='max-width:100%%'/><br/>", Entities.escape(imgUrl)));
+            usedImageUrls.add(imgUrl);
+        }
+        chapter.setContent(contentWithImages.toString());
+    }
+
+    private void confirmUsedImages(Set<String> usedImageUrls, String uploadSession) {
+        // Chia lô để không vượt giới hạn tham số bind của PostgreSQL
+        List<String> urls = new ArrayList<>(usedImageUrls);
+        for (int from = 0; from < urls.size(); from += CONFIRM_BATCH_SIZE) {
+            List<String> batch = urls.subList(from, Math.min(from + CONFIRM_BATCH_SIZE, urls.size()));
+            if (StringUtils.hasText(uploadSession)) {
+                temporaryFileRepository.confirmOnePerUrl(uploadSession, batch);
+            } else {
+                temporaryFileRepository.confirmOnePerUrl(batch);
             }
         }
     }
@@ -338,13 +535,52 @@ public class StoryServiceImpl implements StoryService {
             return null;
         };
 
-        Page<StoryEntity> storyPage = storyRepository.findAll(spec, pageable);
+        Page<StoryCardView> storyPage = storyRepository.findCards(spec, pageable);
         return mapToStoryCardResponse(storyPage);
     }
 
     @Override
     public Page<StoryCardResponse> getStoriesForUser(Pageable pageable) {
-        Specification<StoryEntity> spec = (root, query, cb) -> {
+        Page<StoryCardView> storyPage = storyRepository.findCards(userFeedSpec(), pageable);
+        return mapToStoryCardResponse(storyPage);
+    }
+
+    @Override
+    public CursorPageResponse<StoryCardResponse> getStoriesForUserByCursor(String cursor, int size) {
+        return findCardsByCursor(userFeedSpec(), cursor, size);
+    }
+
+    @Override
+    public Page<StoryCardResponse> searchStories(StorySearchRequest request, Pageable pageable) {
+        Page<StoryCardView> storyPage = storyRepository.findCards(userSearchSpec(request), pageable);
+        return mapToStoryCardResponse(storyPage);
+    }
+
+    @Override
+    public CursorPageResponse<StoryCardResponse> searchStoriesByCursor(StorySearchRequest request, String cursor, int size) {
+        if (!StringUtils.hasText(request.getKeyword())) {
+            // Không có từ khóa thì không có độ liên quan: sắp theo truyện mới nhất như feed
+            return findCardsByCursor(userSearchSpec(request), cursor, size);
+        }
+
+        // Cùng thứ tự với searchStories (độ liên quan, rồi mới nhất); cursor mang cả rank của phần tử cuối
+        int pageSize = normalizeCursorPageSize(size);
+        String keyword = request.getKeyword();
+        List<RankedCardView> cards = storyRepository.findRankedCardsAfter(userSearchSpec(request),
+                (root, cb) -> relevance(root, cb, keyword), CursorCodec.decodeRanked(cursor), pageSize + 1);
+
+        boolean hasNext = cards.size() > pageSize;
+        List<RankedCardView> pageContent = hasNext ? cards.subList(0, pageSize) : cards;
+        String nextCursor = null;
+        if (hasNext) {
+            RankedCardView last = pageContent.get(pageContent.size() - 1);
+            nextCursor = CursorCodec.encodeRanked(last.rank(), last.createDate(), last.id());
+        }
+        return toCursorPage(pageContent.stream().map(RankedCardView::toCard).toList(), nextCursor, pageSize);
+    }
+
+    private Specification<StoryEntity> userFeedSpec() {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             
             // Condition 1: webView = true
@@ -356,14 +592,10 @@ public class StoryServiceImpl implements StoryService {
             
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-
-        Page<StoryEntity> storyPage = storyRepository.findAll(spec, pageable);
-        return mapToStoryCardResponse(storyPage);
     }
 
-    @Override
-    public Page<StoryCardResponse> searchStories(StorySearchRequest request, Pageable pageable) {
-        Specification<StoryEntity> spec = (root, query, cb) -> {
+    private Specification<StoryEntity> userSearchSpec(StorySearchRequest request) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Condition 1: webView = true (Added)
@@ -374,11 +606,12 @@ public class StoryServiceImpl implements StoryService {
             predicates.add(cb.equal(uploaderJoin.get("role"), Role.ADMIN));
 
             if (StringUtils.hasText(request.getKeyword())) {
-                predicates.add(cb.like(cb.lower(root.get("title")), "%" + request.getKeyword().toLowerCase() + "%"));
+                predicates.add(keywordPredicate(root, cb, request.getKeyword()));
+                query.orderBy(cb.desc(relevance(root, cb, request.getKeyword())));
             }
 
             if (StringUtils.hasText(request.getAuthor())) {
-                predicates.add(cb.like(cb.lower(root.get("author")), "%" + request.getAuthor().toLowerCase() + "%"));
+                predicates.add(cb.like(root.get("searchAuthor"), containsPattern(request.getAuthor()), LIKE_ESCAPE));
             }
 
             if (request.getAgeRating() != null) {
@@ -386,15 +619,27 @@ public class StoryServiceImpl implements StoryService {
             }
 
             if (request.getCategories() != null && !request.getCategories().isEmpty()) {
-                predicates.add(root.join("categories").in(request.getCategories()));
-                query.distinct(true);
+                // EXISTS thay cho JOIN + DISTINCT để ORDER BY theo độ liên quan vẫn hợp lệ
+                predicates.add(categoriesPredicate(root, query, cb, request.getCategories()));
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
+    }
 
-        Page<StoryEntity> storyPage = storyRepository.findAll(spec, pageable);
-        return mapToStoryCardResponse(storyPage);
+    private CursorPageResponse<StoryCardResponse> findCardsByCursor(Specification<StoryEntity> spec, String cursor, int size) {
+        int pageSize = normalizeCursorPageSize(size);
+        // Lấy dư 1 phần tử để biết còn trang sau hay không, thay cho COUNT(*)
+        List<StoryCardView> cards = storyRepository.findCardsAfter(spec, CursorCodec.decode(cursor), pageSize + 1);
+
+        boolean hasNext = cards.size() > pageSize;
+        List<StoryCardView> pageContent = hasNext ? cards.subList(0, pageSize) : cards;
+        String nextCursor = null;
+        if (hasNext) {
+            StoryCardView last = pageContent.get(pageContent.size() - 1);
+            nextCursor = CursorCodec.encode(last.createDate(), last.id());
+        }
+        return toCursorPage(pageContent, nextCursor, pageSize);
     }
 
     @Override
@@ -402,12 +647,10 @@ public class StoryServiceImpl implements StoryService {
         Specification<StoryEntity> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // 1. Filter by Keyword (Title OR Author)
+            // 1. Filter by Keyword (Title, Author, Description - không phân biệt dấu)
             if (StringUtils.hasText(request.getKeyword())) {
-                String keyword = "%" + request.getKeyword().toLowerCase() + "%";
-                Predicate titleLike = cb.like(cb.lower(root.get("title")), keyword);
-                Predicate authorLike = cb.like(cb.lower(root.get("author")), keyword);
-                predicates.add(cb.or(titleLike, authorLike));
+                predicates.add(keywordPredicate(root, cb, request.getKeyword()));
+                query.orderBy(cb.desc(relevance(root, cb, request.getKeyword())));
             }
 
             // 2. Filter by CreatedByRole
@@ -424,29 +667,123 @@ public class StoryServiceImpl implements StoryService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        Page<StoryEntity> storyPage = storyRepository.findAll(spec, pageable);
+        Page<StoryCardView> storyPage = storyRepository.findCards(spec, pageable);
         return mapToStoryCardResponse(storyPage);
     }
 
+    /**
+     * Mỗi từ khóa (đã bỏ dấu) phải xuất hiện trong SEARCH_TEXT (title + author + description).
+     * LIKE '%...%' trên cột này dùng được GIN trigram index.
+     */
+    private Predicate keywordPredicate(Root<StoryEntity> root, CriteriaBuilder cb, String keyword) {
+        List<Predicate> tokenPredicates = new ArrayList<>();
+        for (String token : TextNormalizer.fold(keyword).split(" ")) {
+            if (!token.isEmpty()) {
+                tokenPredicates.add(cb.like(root.get("searchText"), "%" + TextNormalizer.escapeLike(token) + "%", LIKE_ESCAPE));
+            }
+        }
+        return cb.and(tokenPredicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Điểm liên quan: trùng tiêu đề > tiêu đề bắt đầu bằng từ khóa > tiêu đề chứa từ khóa
+     * > tác giả chứa từ khóa > chỉ khớp trong mô tả.
+     */
+    private Expression<Integer> relevance(Root<StoryEntity> root, CriteriaBuilder cb, String keyword) {
+        String folded = TextNormalizer.fold(keyword);
+        String escaped = TextNormalizer.escapeLike(folded);
+        Path<String> title = root.get("searchTitle");
+        Path<String> author = root.get("searchAuthor");
+        return cb.<Integer>selectCase()
+                .when(cb.equal(title, folded), 5)
+                .when(cb.like(title, escaped + "%", LIKE_ESCAPE), 4)
+                .when(cb.like(title, "%" + escaped + "%", LIKE_ESCAPE), 3)
+                .when(cb.like(author, "%" + escaped + "%", LIKE_ESCAPE), 2)
+                .otherwise(1);
+    }
+
+    private Predicate categoriesPredicate(Root<StoryEntity> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                          List<StoryCategory> categories) {
+        Subquery<String> subquery = query.subquery(String.class);
+        Root<StoryEntity> subRoot = subquery.from(StoryEntity.class);
+        Join<StoryEntity, StoryCategory> categoryJoin = subRoot.join("categories");
+        subquery.select(subRoot.get("id"))
+                .where(cb.equal(subRoot.get("id"), root.get("id")), categoryJoin.in(categories));
+        return cb.exists(subquery);
+    }
+
+    private String containsPattern(String text) {
+        return "%" + TextNormalizer.escapeLike(TextNormalizer.fold(text)) + "%";
+    }
+
     @Override
     public Page<StoryCardResponse> getRecentlyReadStories(Pageable pageable) {
         UserEntity currentUser = getCurrentUser();
-        // Updated to use the new repository method
-        Page<UserStoryLibraryEntity> libraryEntries = userStoryLibraryRepository
-                .findByUserIdAndLastSeenNotNullOrderByLastSeenDesc(currentUser.getId(), pageable);
-
-        Page<StoryEntity> storyPage = libraryEntries.map(UserStoryLibraryEntity::getStory);
+        Page<StoryCardView> storyPage = userStoryLibraryRepository
+                .findRecentlyReadCards(currentUser.getId(), pageable);
 
         return mapToStoryCardResponse(storyPage);
     }
 
     @Override
-    public Page<StoryCardResponse> getFavoriteStories(Pageable pageable) {
+    public CursorPageResponse<StoryCardResponse> getRecentlyReadStoriesByCursor(String cursor, int size) {
         UserEntity currentUser = getCurrentUser();
-        Page<UserStoryLibraryEntity> libraryEntries = userStoryLibraryRepository
-                .findByUserIdAndIsFavoriteTrueOrderByLastUpdateDateDesc(currentUser.getId(), pageable);
+        int pageSize = normalizeCursorPageSize(size);
+        CursorCodec.Cursor decoded = CursorCodec.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<LibraryCardView> entries = decoded == null
+                ? userStoryLibraryRepository.findRecentlyReadFirst(currentUser.getId(), limit)
+                : userStoryLibraryRepository.findRecentlyReadAfter(currentUser.getId(), decoded.time(), decoded.id(), limit);
+        return toLibraryCursorPage(entries, pageSize);
+    }
+
+    @Override
+    public CursorPageResponse<StoryCardResponse> getFavoriteStoriesByCursor(String cursor, int size) {
+        UserEntity currentUser = getCurrentUser();
+        int pageSize = normalizeCursorPageSize(size);
+        CursorCodec.Cursor decoded = CursorCodec.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<LibraryCardView> entries = decoded == null
+                ? userStoryLibraryRepository.findFavoritesFirst(currentUser.getId(), limit)
+                : userStoryLibraryRepository.findFavoritesAfter(currentUser.getId(), decoded.time(), decoded.id(), limit);
+        return toLibraryCursorPage(entries, pageSize);
+    }
 
-        Page<StoryEntity> storyPage = libraryEntries.map(UserStoryLibraryEntity::getStory);
+    private CursorPageResponse<StoryCardResponse> toLibraryCursorPage(List<LibraryCardView> entries, int pageSize) {
+        boolean hasNext = entries.size() > pageSize;
+        List<LibraryCardView> pageContent = hasNext ? entries.subList(0, pageSize) : entries;
+        String nextCursor = null;
+        if (hasNext) {
+            LibraryCardView last = pageContent.get(pageContent.size() - 1);
+            nextCursor = CursorCodec.encode(last.sortKey(), last.entryId());
+        }
+        return toCursorPage(pageContent.stream().map(LibraryCardView::toCard).toList(), nextCursor, pageSize);
+    }
+
+    private CursorPageResponse<StoryCardResponse> toCursorPage(List<StoryCardView> cards, String nextCursor, int pageSize) {
+        Set<String> favoriteStoryIds = findFavoriteStoryIds(cards);
+        List<StoryCardResponse> content = cards.stream()
+                .map(card -> toStoryCardResponse(card, favoriteStoryIds))
+                .toList();
+        return CursorPageResponse.<StoryCardResponse>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .size(pageSize)
+                .build();
+    }
+
+    private int normalizeCursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    @Override
+    public Page<StoryCardResponse> getFavoriteStories(Pageable pageable) {
+        UserEntity currentUser = getCurrentUser();
+        Page<StoryCardView> storyPage = userStoryLibraryRepository
+                .findFavoriteCards(currentUser.getId(), pageable);
 
         return mapToStoryCardResponse(storyPage);
     }
@@ -454,41 +791,93 @@ public class StoryServiceImpl implements StoryService {
     @Override
     public Page<StoryCardResponse> getUserLibrary(Pageable pageable) {
         UserEntity currentUser = getCurrentUser();
-        Page<StoryEntity> storyPage = storyRepository.findByUploaderId(currentUser.getId(), pageable);
+        Specification<StoryEntity> spec = (root, query, cb) ->
+                cb.equal(root.get("uploader").get("id"), currentUser.getId());
+        Page<StoryCardView> storyPage = storyRepository.findCards(spec, pageable);
 
         return mapToStoryCardResponse(storyPage);
     }
 
-    private Page<StoryCardResponse> mapToStoryCardResponse(Page<StoryEntity> storyPage) {
+    private Page<StoryCardResponse> mapToStoryCardResponse(Page<StoryCardView> storyPage) {
+        Set<String> favoriteStoryIds = findFavoriteStoryIds(storyPage.getContent());
+        return storyPage.map(story -> toStoryCardResponse(story, favoriteStoryIds));
+    }
+
+    private Set<String> findFavoriteStoryIds(List<StoryCardView> cards) {
+        UserEntity currentUser = getCurrentUserOpt();
+        if (currentUser == null || cards.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<String> storyIds = cards.stream()
+                .map(StoryCardView::id)
+                .toList();
+        return userStoryLibraryRepository.findFavoriteStoryIdsByUserIdAndStoryIds(currentUser.getId(), storyIds);
+    }
+
+    private StoryCardResponse toStoryCardResponse(StoryCardView story, Set<String> favoriteStoryIds) {
+        return StoryCardResponse.builder()
+                .id(story.id())
+                .title(story.title())
+                .author(story.author())
+                .coverImageUrl(story.coverImageUrl())
+                .coverThumbnailUrl(story.coverThumbnailUrl())
+                .status(story.status() != null ? story.status().name() : "")
+                .webView(story.webView())
+                .isFavorite(favoriteStoryIds.contains(story.id()))
+                .build();
+    }
+
+    @Override
+    public boolean isFavoriteStory(String storyId) {
         UserEntity currentUser = getCurrentUserOpt();
-        Set<String> favoriteStoryIds = Collections.emptySet();
+        return currentUser != null && userStoryLibraryRepository
+                .existsByUserIdAndStoryIdAndIsFavoriteTrue(currentUser.getId(), storyId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StoryResponse getStoryById(String id, ContentVersion version, boolean isFavorite) {
+        // Phần dùng chung lấy từ cache (nạp lại nếu version đã đổi), isFavorite ghép theo user hiện tại
+        StoryResponse response = contentCacheService.getStory(id, version.lastModified(), () -> toStoryDetailResponse(
+                storyRepository.findById(id)
+                        .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy truyện"))));
+        response.setIsFavorite(isFavorite);
 
-        if (currentUser != null && !storyPage.isEmpty()) {
-            List<String> storyIdsInPage = storyPage.getContent().stream()
-                    .map(StoryEntity::getId)
-                    .toList();
-            favoriteStoryIds = userStoryLibraryRepository.findFavoriteStoryIdsByUserIdAndStoryIds(currentUser.getId(), storyIdsInPage);
+        UserEntity currentUser = getCurrentUserOpt();
+        if (currentUser != null) {
+            // Update lastSeen (write-behind, flush định kỳ)
+            readingHistoryService.recordView(currentUser.getId(), id);
         }
 
-        Set<String> finalFavoriteStoryIds = favoriteStoryIds;
-        return storyPage.map(story -> StoryCardResponse.builder()
-                .id(story.getId())
-                .title(story.getTitle())
-                .author(story.getAuthor())
-                .coverImageUrl(story.getCoverImageUrl())
-                .status(story.getStatus() != null ? story.getStatus().name() : "")
-                .webView(story.getWebView())
-                .isFavorite(finalFavoriteStoryIds.contains(story.getId()))
-                .build());
+        return response;
     }
 
+    /**
+     * Version của chi tiết truyện: truyện + mục lục + trạng thái yêu thích của user hiện tại
+     * (isFavorite nằm trong body nên phải nằm trong ETag).
+     */
     @Override
-    @Transactional
-    public StoryResponse getStoryById(String id) {
-        StoryEntity story = storyRepository.findById(id)
+    public ContentVersion getStoryVersion(String id, boolean isFavorite) {
+        StoryVersionView version = storyRepository.findVersionById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy truyện"));
 
+        LocalDateTime lastModified = version.storyVersion();
+        if (version.chapterVersion() != null && (lastModified == null || version.chapterVersion().isAfter(lastModified))) {
+            lastModified = version.chapterVersion();
+        }
+
+        return ContentVersion.of(lastModified, version.chapterCount(), isFavorite ? 1 : 0);
+    }
+
+    /**
+     * Chi tiết truyện kèm mục lục (id, số chương, tiêu đề, số từ) - không serialize nội dung chương.
+     */
+    private StoryResponse toStoryDetailResponse(StoryEntity story) {
         StoryResponse response = storyMapper.toStoryResponse(story);
+        response.setChapters(chapterRepository.findSummariesByStoryId(story.getId()));
+        if (story.getCoverThumbnailUrl() != null && story.getCoverImageUrl() != null) {
+            response.setCoverThumbnails(ImageDerivatives.coverThumbnails(story.getCoverImageUrl()));
+        }
 
         if (story.getCategories() != null) {
             List<String> categories = story.getCategories().stream()
@@ -496,41 +885,51 @@ public class StoryServiceImpl implements StoryService {
                     .collect(Collectors.toList());
             response.setCategoryNames(categories);
         }
-
-        UserEntity currentUser = getCurrentUserOpt();
-        if (currentUser != null) {
-            // Check favorite status
-            boolean isFavorite = userStoryLibraryRepository
-                    .existsByUserIdAndStoryIdAndIsFavoriteTrue(currentUser.getId(), id);
-            response.setIsFavorite(isFavorite);
-
-            // Update lastSeen
-            UserStoryLibraryEntity libraryEntry = userStoryLibraryRepository
-                    .findByUserIdAndStoryId(currentUser.getId(), id)
-                    .orElseGet(() -> {
-                        UserStoryLibraryEntity newEntry = new UserStoryLibraryEntity();
-                        newEntry.setUser(currentUser);
-                        newEntry.setStory(story);
-                        return newEntry;
-                    });
-            
-            libraryEntry.setLastSeen(LocalDateTime.now());
-            userStoryLibraryRepository.save(libraryEntry);
-
-        } else {
-            response.setIsFavorite(false);
-        }
-
         return response;
     }
 
     @Override
     public ChapterResponse getChapterById(String id) {
+        return contentCacheService.getChapter(id, () -> loadChapterResponse(id));
+    }
+
+    private ChapterResponse loadChapterResponse(String id) {
         ChapterEntity chapter = chapterRepository.findById(id)
                 .orElseThrow(()-> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy chương"));
         return chapterMapper.toResponse(chapter);
     }
 
+    @Override
+    public ContentVersion getChapterVersion(String id) {
+        LocalDateTime version = chapterRepository.findVersionById(id)
+                .orElseThrow(()-> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy chương"));
+        return ContentVersion.of(version);
+    }
+
+    @Override
+    public String getChapterContent(String id) {
+        ChapterEntity chapter = chapterRepository.findById(id)
+                .orElseThrow(()-> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy chương"));
+        return chapter.getContent() != null ? chapter.getContent() : "";
+    }
+
+    @Override
+    public ChapterContentSegment getChapterContentSegment(String id, int segment, int segmentSize) {
+        if (segment < 0 || segmentSize <= 0) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "segment phải >= 0 và segmentSize phải > 0");
+        }
+        // Khối đã tách được cache cùng chương, mỗi segment không phải parse lại cả chương
+        List<String> blocks = contentCacheService.getChapterBlocks(id, () -> loadChapterResponse(id));
+
+        int totalSegments = Math.max(1, (blocks.size() + segmentSize - 1) / segmentSize);
+        if (segment >= totalSegments) {
+            throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy đoạn " + segment + " của chương");
+        }
+        int from = Math.min(blocks.size(), segment * segmentSize);
+        int to = Math.min(blocks.size(), from + segmentSize);
+        return new ChapterContentSegment(id, segment, totalSegments, blocks.subList(from, to));
+    }
+
     @Override
     @Transactional
     public void favoriteStory(String storyId) {
@@ -567,6 +966,8 @@ public class StoryServiceImpl implements StoryService {
             }
         }
 
+        contentCacheService.evictStory(storyId);
+
         // Delete related UserStoryLibrary entries first
         List<UserStoryLibraryEntity> libraryEntries = userStoryLibraryRepository.findAllByStoryId(storyId);
         userStoryLibraryRepository.deleteAll(libraryEntries);
@@ -586,6 +987,7 @@ public class StoryServiceImpl implements StoryService {
         story.setWebView(!currentStatus);
         
         storyRepository.save(story);
+        contentCacheService.evictStory(storyId);
     }
 
     @Override
@@ -0,0 +1,235 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.utils.TextNormalizer;
+import com.ptit.story_speaker.domain.entity.SynthesisCacheEntity;
+import com.ptit.story_speaker.repository.SynthesisCacheRepository;
+import com.ptit.story_speaker.services.MinioService;
+import com.ptit.story_speaker.services.SynthesisCacheService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả text-to-speech lâu dài (bảng SYNTHESIS_CACHE) kèm single-flight:
+ * các request giống nhau đến cùng lúc chỉ gọi voice service một lần và dùng chung kết quả.
+ * Lượt hit chỉ ghi vào bộ nhớ, flush định kỳ bằng một batch UPDATE (HIT_COUNT, LAST_HIT_AT).
+ * Job evict hằng ngày xóa bản ghi lâu không dùng (max-idle-days) và bản ghi ít dùng gần đây nhất khi vượt
+ * max-entries, rồi xóa audio tương ứng; audio còn được narration manifest dùng thì giữ lại.
+ * Bản ghi luôn bị xóa trước audio nên cache hit không cần kiểm tra object trên MinIO.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SynthesisCacheServiceImpl implements SynthesisCacheService {
+
+    private static final String FLUSH_HITS_SQL =
+            "UPDATE SYNTHESIS_CACHE SET HIT_COUNT = HIT_COUNT + ?, LAST_HIT_AT = GREATEST(LAST_HIT_AT, ?) WHERE CACHE_KEY = ?";
+
+    // Xóa một lô bản ghi hit cũ nhất trước mốc thời gian, trả về AUDIO_URL để xóa object sau khi commit
+    private static final String EVICT_CHUNK_SQL =
+            "DELETE FROM SYNTHESIS_CACHE WHERE CACHE_KEY IN (" +
+            "SELECT sc.CACHE_KEY FROM SYNTHESIS_CACHE sc WHERE sc.LAST_HIT_AT < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM NARRATION_SEGMENT ns WHERE ns.AUDIO_URL = sc.AUDIO_URL) " +
+            "ORDER BY sc.LAST_HIT_AT LIMIT ?) " +
+            "RETURNING AUDIO_URL";
+
+    private final SynthesisCacheRepository synthesisCacheRepository;
+    private final MinioService minioService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // cacheKey -> lần tổng hợp đang chạy
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    // cacheKey -> lượt hit chưa flush
+    private final Map<String, PendingHit> pendingHits = new ConcurrentHashMap<>();
+
+    @Value("${story.synthesis-cache.max-idle-days:30}")
+    private int maxIdleDays;
+
+    @Value("${story.synthesis-cache.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${story.synthesis-cache.eviction-chunk-size:500}")
+    private int evictionChunkSize;
+
+    private record PendingHit(long count, LocalDateTime lastHitAt) {
+        PendingHit merge(PendingHit other) {
+            return new PendingHit(count + other.count,
+                    lastHitAt.isAfter(other.lastHitAt) ? lastHitAt : other.lastHitAt);
+        }
+    }
+
+    @Override
+    public String getOrSynthesize(String text, String voiceId, String language, Supplier<String> synthesizer) {
+        String normalizedText = TextNormalizer.normalizeForSpeech(text);
+        String normalizedLanguage = language != null ? language.trim().toLowerCase(Locale.ROOT) : "";
+        String cacheKey = cacheKey(normalizedText, voiceId, normalizedLanguage);
+
+        String cachedUrl = findCached(cacheKey);
+        if (cachedUrl != null) {
+            return cachedUrl;
+        }
+
+        CompletableFuture<String> synthesis = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(cacheKey, synthesis);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Request trước có thể vừa ghi cache xong
+            String audioUrl = findCached(cacheKey);
+            if (audioUrl == null) {
+                audioUrl = synthesizer.get();
+                if (audioUrl != null) {
+                    synthesisCacheRepository.insertIfAbsent(cacheKey, audioUrl, voiceId, normalizedLanguage,
+                            normalizedText != null ? normalizedText.length() : 0);
+                }
+            }
+            synthesis.complete(audioUrl);
+            return audioUrl;
+        } catch (RuntimeException e) {
+            synthesis.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, synthesis);
+        }
+    }
+
+    private String findCached(String cacheKey) {
+        Optional<SynthesisCacheEntity> cached = synthesisCacheRepository.findById(cacheKey);
+        if (cached.isEmpty()) {
+            return null;
+        }
+        pendingHits.merge(cacheKey, new PendingHit(1, LocalDateTime.now()), PendingHit::merge);
+        return cached.get().getAudioUrl();
+    }
+
+    @Scheduled(fixedDelayString = "${story.synthesis-cache.hit-flush-interval-ms:10000}")
+    public void scheduledFlushHits() {
+        flushHits();
+    }
+
+    @PreDestroy
+    public void flushHitsOnShutdown() {
+        flushHits();
+    }
+
+    private synchronized void flushHits() {
+        if (pendingHits.isEmpty()) {
+            return;
+        }
+        Map<String, PendingHit> drained = new HashMap<>();
+        for (String cacheKey : new ArrayList<>(pendingHits.keySet())) {
+            PendingHit hit = pendingHits.remove(cacheKey);
+            if (hit != null) {
+                drained.put(cacheKey, hit);
+            }
+        }
+        List<Object[]> batch = drained.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue().count(), entry.getValue().lastHitAt(), entry.getKey()})
+                .toList();
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_HITS_SQL, batch);
+            log.debug("Flushed hits of {} synthesis cache entries", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush hits of {} synthesis cache entries, re-queueing", batch.size(), e);
+            drained.forEach((cacheKey, hit) -> pendingHits.merge(cacheKey, hit, PendingHit::merge));
+        }
+    }
+
+    /**
+     * Evict theo LRU (LAST_HIT_AT): trước hết các bản ghi quá max-idle-days, sau đó nếu còn vượt max-entries
+     * thì các bản ghi hit cũ nhất. Mỗi lô một câu DELETE ... RETURNING (tự commit) rồi xóa audio trên MinIO.
+     */
+    @Scheduled(cron = "${story.synthesis-cache.eviction-cron:0 43 3 * * ?}")
+    public void evictEntries() {
+        flushHits();
+        long startedAt = System.currentTimeMillis();
+        int chunkSize = Math.max(1, evictionChunkSize);
+
+        long idle = 0;
+        LocalDateTime idleBefore = LocalDateTime.now().minusDays(maxIdleDays);
+        while (true) {
+            int evicted = evictChunk(idleBefore, chunkSize);
+            idle += evicted;
+            if (evicted < chunkSize) {
+                break;
+            }
+        }
+
+        long overflow = 0;
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SYNTHESIS_CACHE", Long.class);
+        long excess = (total != null ? total : 0) - maxEntries;
+        LocalDateTime now = LocalDateTime.now();
+        while (excess > 0) {
+            int evicted = evictChunk(now, (int) Math.min(excess, chunkSize));
+            if (evicted == 0) {
+                break; // Phần còn lại đều đang được narration dùng
+            }
+            overflow += evicted;
+            excess -= evicted;
+        }
+
+        log.info("Synthesis cache eviction finished in {} ms: {} idle, {} over capacity",
+                System.currentTimeMillis() - startedAt, idle, overflow);
+    }
+
+    private int evictChunk(LocalDateTime lastHitBefore, int limit) {
+        List<String> audioUrls = jdbcTemplate.queryForList(EVICT_CHUNK_SQL, String.class, lastHitBefore, limit);
+        List<String> storedUrls = audioUrls.stream()
+                .filter(audioUrl -> minioService.getObjectName(audioUrl) != null)
+                .toList();
+        if (!storedUrls.isEmpty()) {
+            Set<String> failed = minioService.removeFiles(storedUrls);
+            if (!failed.isEmpty()) {
+                log.warn("Could not remove {} evicted synthesis audio files", failed.size());
+            }
+        }
+        return audioUrls.size();
+    }
+
+    private String await(CompletableFuture<String> synthesis) {
+        try {
+            return synthesis.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String cacheKey(String normalizedText, String voiceId, String language) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Ký tự NUL phân tách các thành phần để "ab"+"c" khác "a"+"bc"
+            String material = String.join("\u0000",
+                    normalizedText != null ? normalizedText : "",
+                    voiceId != null ? voiceId : "",
+                    language);
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.domain.dto.request.PresignedUploadRequest;
+import com.ptit.story_speaker.domain.dto.request.UploadConfirmRequest;
+import com.ptit.story_speaker.domain.dto.response.PresignedUploadResponse;
+import com.ptit.story_speaker.domain.dto.response.UploadConfirmResponse;
+import com.ptit.story_speaker.domain.entity.TemporaryFileEntity;
+import com.ptit.story_speaker.domain.model.StoredObject;
+import com.ptit.story_speaker.repository.TemporaryFileRepository;
+import com.ptit.story_speaker.services.MinioService;
+import com.ptit.story_speaker.services.UploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upload ảnh trực tiếp lên MinIO bằng presigned PUT: app server chỉ cấp URL và kiểm tra object sau khi upload,
+ * không nhận byte nào của file.
+ */
+@Service
+@RequiredArgsConstructor
+public class UploadServiceImpl implements UploadService {
+
+    private static final String UPLOAD_PREFIX = "uploads/";
+    private static final Map<String, String> IMAGE_EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp");
+
+    private final MinioService minioService;
+    private final TemporaryFileRepository temporaryFileRepository;
+
+    @Value("${story.upload.presigned.expiry-seconds:900}")
+    private int expirySeconds;
+
+    @Value("${story.upload.presigned.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Override
+    @Transactional
+    public PresignedUploadResponse createPresignedUpload(PresignedUploadRequest request) {
+        String contentType = request.getContentType().toLowerCase(Locale.ROOT);
+        String extension = IMAGE_EXTENSIONS.get(contentType);
+        if (extension == null) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Chỉ hỗ trợ ảnh JPEG, PNG, GIF hoặc WEBP");
+        }
+        if (request.getSize() != null && request.getSize() > maxBytes) {
+            throw new AppException(ErrorCode.PAYLOAD_TOO_LARGE, "Ảnh vượt quá " + maxBytes + " bytes");
+        }
+
+        String objectName = UPLOAD_PREFIX + request.getPurpose().getFilePrefix() + "-" + UUID.randomUUID() + extension;
+        String fileUrl = minioService.getFileUrl(objectName);
+        String uploadUrl = minioService.createPresignedUploadUrl(objectName, expirySeconds);
+
+        // Đăng ký file tạm ngay khi cấp URL: upload bị bỏ dở hoặc không được gắn vào truyện sẽ được job dọn dẹp thu hồi
+        LocalDateTime now = LocalDateTime.now();
+        temporaryFileRepository.save(TemporaryFileEntity.builder().fileUrl(fileUrl).createdAt(now).build());
+
+        return PresignedUploadResponse.builder()
+                .uploadUrl(uploadUrl)
+                .contentType(contentType)
+                .objectName(objectName)
+                .fileUrl(fileUrl)
+                .expiresAt(now.plusSeconds(expirySeconds))
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public UploadConfirmResponse confirmUpload(UploadConfirmRequest request) {
+        String objectName = request.getObjectName();
+        if (!objectName.startsWith(UPLOAD_PREFIX) || objectName.contains("..")) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Tên object không hợp lệ");
+        }
+        String fileUrl = minioService.getFileUrl(objectName);
+        if (!temporaryFileRepository.existsByFileUrl(fileUrl)) {
+            throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy phiên upload hoặc ảnh đã được sử dụng");
+        }
+
+        StoredObject stored = validateStoredObject(objectName, fileUrl);
+        temporaryFileRepository.markConfirmed(fileUrl);
+
+        return UploadConfirmResponse.builder()
+                .fileUrl(fileUrl)
+                .size(stored.size())
+                .contentType(stored.contentType().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
+    @Override
+    public void requireConfirmedUpload(String fileUrl) {
+        String objectName = fileUrl != null ? minioService.getObjectName(fileUrl) : null;
+        if (objectName == null || !objectName.startsWith(UPLOAD_PREFIX) || objectName.contains("..")) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Ảnh không thuộc kho lưu trữ của hệ thống: " + fileUrl);
+        }
+        if (!temporaryFileRepository.existsByFileUrlAndConfirmedTrue(fileUrl)) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Ảnh chưa được xác nhận qua /uploads/confirm: " + fileUrl);
+        }
+        // Presigned URL còn hạn vẫn PUT đè được sau khi confirm, kiểm tra lại object trước khi gắn vào truyện
+        validateStoredObject(objectName, fileUrl);
+    }
+
+    private StoredObject validateStoredObject(String objectName, String fileUrl) {
+        StoredObject stored = minioService.statFile(objectName);
+        if (stored == null) {
+            throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "File chưa được upload lên kho lưu trữ");
+        }
+
+        // Presigned URL không giới hạn được kích thước/kiểu file, kiểm tra lại trên object thực tế
+        String contentType = stored.contentType() != null ? stored.contentType().toLowerCase(Locale.ROOT) : "";
+        if (stored.size() > maxBytes || !IMAGE_EXTENSIONS.containsKey(contentType)) {
+            minioService.removeFile(fileUrl);
+            temporaryFileRepository.deleteAllByFileUrlIn(List.of(fileUrl));
+            throw stored.size() > maxBytes
+                    ? new AppException(ErrorCode.PAYLOAD_TOO_LARGE, "Ảnh vượt quá " + maxBytes + " bytes")
+                    : new AppException(ErrorCode.VALIDATION_FAILED, "Chỉ hỗ trợ ảnh JPEG, PNG, GIF hoặc WEBP");
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.configurations.VoiceServiceProperties;
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.CircuitBreaker;
+import com.ptit.story_speaker.domain.dto.request.TextToSpeechRequest;
+import com.ptit.story_speaker.domain.dto.response.TextToSpeechResponse;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainResponse;
+import com.ptit.story_speaker.services.VoiceServiceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client dùng chung cho dịch vụ giọng nói. Một HttpClient (pool kết nối keep-alive) cho mọi request,
+ * timeout đọc riêng cho tổng hợp giọng và train model, bulkhead giới hạn số request đồng thời theo
+ * từng thao tác, và circuit breaker riêng cho từng thao tác để từ chối ngay khi dịch vụ đang lỗi thay vì giữ
+ * thread chờ timeout. Tách riêng để lỗi/request thử (half-open) của train model - có thể kéo dài tới
+ * training-timeout - không chặn tổng hợp giọng và ngược lại.
+ */
+@Service
+@Slf4j
+public class VoiceServiceClientImpl implements VoiceServiceClient {
+
+    private final VoiceServiceProperties properties;
+    private final RestClient synthesisClient;
+    private final RestClient trainingClient;
+    private final Semaphore synthesisPermits;
+    private final Semaphore trainingPermits;
+    private final CircuitBreaker synthesisCircuit;
+    private final CircuitBreaker trainingCircuit;
+
+    public VoiceServiceClientImpl(RestClient.Builder restClientBuilder, VoiceServiceProperties properties) {
+        this.properties = properties;
+
+        // HttpClient của JDK tự giữ pool kết nối và tái sử dụng chúng giữa các request
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.synthesisClient = buildClient(restClientBuilder, httpClient, properties.getSynthesisTimeout());
+        this.trainingClient = buildClient(restClientBuilder, httpClient, properties.getTrainingTimeout());
+
+        this.synthesisPermits = new Semaphore(Math.max(1, properties.getMaxConcurrentSynthesis()));
+        this.trainingPermits = new Semaphore(Math.max(1, properties.getMaxConcurrentTraining()));
+        this.synthesisCircuit = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenDuration());
+        this.trainingCircuit = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenDuration());
+    }
+
+    private RestClient buildClient(RestClient.Builder builder, HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return builder.clone()
+                .baseUrl(properties.getBaseUrl())
+                .requestFactory(factory)
+                .build();
+    }
+
+    @Override
+    public TextToSpeechResponse synthesize(TextToSpeechRequest request) {
+        return call(synthesisPermits, synthesisCircuit, "synthesize", () -> synthesisClient.post()
+                .uri(properties.getSynthesisPath())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .body(TextToSpeechResponse.class));
+    }
+
+    @Override
+    public VoiceTrainResponse train(MultiValueMap<String, Object> body) {
+        return call(trainingPermits, trainingCircuit, "train", () -> trainingClient.post()
+                .uri(properties.getTrainingPath())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(body)
+                .retrieve()
+                .body(VoiceTrainResponse.class));
+    }
+
+    CircuitBreaker.State getSynthesisCircuitState() {
+        return synthesisCircuit.getState();
+    }
+
+    CircuitBreaker.State getTrainingCircuitState() {
+        return trainingCircuit.getState();
+    }
+
+    private <T> T call(Semaphore permits, CircuitBreaker circuitBreaker, String operation, Supplier<T> exchange) {
+        acquire(permits, operation);
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new AppException(ErrorCode.VOICE_SERVICE_UNAVAILABLE);
+            }
+            try {
+                T result = exchange.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (HttpClientErrorException e) {
+                // Lỗi 4xx là do request, dịch vụ vẫn hoạt động bình thường
+                circuitBreaker.onSuccess();
+                throw e;
+            } catch (RestClientException e) {
+                // Timeout, không kết nối được hoặc lỗi 5xx
+                circuitBreaker.onFailure();
+                log.warn("Voice service {} failed: {}", operation, e.getMessage());
+                throw new AppException(ErrorCode.VOICE_SERVICE_UNAVAILABLE);
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire(Semaphore permits, String operation) {
+        try {
+            if (!permits.tryAcquire(properties.getBulkheadWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Voice service {} rejected: too many concurrent requests", operation);
+                throw new AppException(ErrorCode.VOICE_SERVICE_BUSY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.VOICE_SERVICE_BUSY);
+        }
+    }
+}
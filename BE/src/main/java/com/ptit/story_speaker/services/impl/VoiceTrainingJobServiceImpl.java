@@ -0,0 +1,245 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.SseEmitterRegistry;
+import com.ptit.story_speaker.domain.dto.request.VoiceTrainRequest;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainResponse;
+import com.ptit.story_speaker.domain.dto.response.VoiceTrainingJobResponse;
+import com.ptit.story_speaker.domain.entity.UserEntity;
+import com.ptit.story_speaker.domain.entity.VoiceEntity;
+import com.ptit.story_speaker.domain.entity.VoiceTrainingJobEntity;
+import com.ptit.story_speaker.domain.mapper.VoiceTrainingJobMapper;
+import com.ptit.story_speaker.domain.model.enums.Role;
+import com.ptit.story_speaker.domain.model.enums.VoiceTrainingStatus;
+import com.ptit.story_speaker.repository.UserRepository;
+import com.ptit.story_speaker.repository.VoiceRepository;
+import com.ptit.story_speaker.repository.VoiceTrainingJobRepository;
+import com.ptit.story_speaker.services.VoiceServiceClient;
+import com.ptit.story_speaker.services.VoiceTrainingJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+/**
+ * Train giọng theo job: request chỉ chuyển file audio sang file tạm (không đọc vào heap) và trả về job id,
+ * việc gửi file tới voice service và chờ train chạy trên pool voiceTrainingExecutor.
+ * File được stream thẳng từ đĩa trong multipart request; khi train xong mới tạo VoiceEntity.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoiceTrainingJobServiceImpl implements VoiceTrainingJobService {
+
+    private static final String STATUS_EVENT = "status";
+
+    private final VoiceTrainingJobRepository voiceTrainingJobRepository;
+    private final VoiceTrainingJobMapper voiceTrainingJobMapper;
+    private final VoiceRepository voiceRepository;
+    private final UserRepository userRepository;
+    private final VoiceServiceClient voiceServiceClient;
+    @Qualifier("voiceTrainingExecutor")
+    private final ThreadPoolTaskExecutor voiceTrainingExecutor;
+
+    // jobId -> các client đang theo dõi
+    private final SseEmitterRegistry emitters = new SseEmitterRegistry();
+
+    @Value("${story.voice-training.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int interrupted = voiceTrainingJobRepository.failJobsInStatus(
+                EnumSet.of(VoiceTrainingStatus.QUEUED, VoiceTrainingStatus.TRAINING),
+                "Train giọng bị gián đoạn do server khởi động lại", LocalDateTime.now());
+        if (interrupted > 0) {
+            log.warn("Marked {} interrupted voice training jobs as failed", interrupted);
+        }
+    }
+
+    @Override
+    public VoiceTrainingJobResponse submitTraining(VoiceTrainRequest request) throws IOException {
+        MultipartFile file = request.getFile();
+        if (file == null || file.isEmpty()) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "File is required for training.");
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "Tên giọng không được để trống");
+        }
+        UserEntity currentUser = getCurrentUser();
+
+        // File multipart bị xóa khi request kết thúc; transferTo chuyển/copy file trên đĩa, không qua heap
+        Path audioPath = Files.createTempFile("voice-train-", ".upload");
+        VoiceTrainingJobEntity job;
+        try {
+            file.transferTo(audioPath);
+            job = voiceTrainingJobRepository.save(VoiceTrainingJobEntity.builder()
+                    .userId(currentUser.getId())
+                    .name(request.getName())
+                    .fileName(file.getOriginalFilename())
+                    .fileSize(file.getSize())
+                    .f0Method(request.getF0Method())
+                    .epochsNumber(request.getEpochsNumber())
+                    .trainAt(request.getTrainAt())
+                    .status(VoiceTrainingStatus.QUEUED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(audioPath);
+            throw e;
+        }
+
+        String jobId = job.getId();
+        try {
+            voiceTrainingExecutor.execute(() -> runJob(jobId, audioPath));
+        } catch (TaskRejectedException e) {
+            Files.deleteIfExists(audioPath);
+            voiceTrainingJobRepository.deleteById(jobId);
+            throw new AppException(ErrorCode.VOICE_TRAINING_QUEUE_FULL);
+        }
+        return voiceTrainingJobMapper.toResponse(job);
+    }
+
+    @Override
+    public VoiceTrainingJobResponse getJob(String jobId) {
+        return voiceTrainingJobMapper.toResponse(findAccessibleJob(jobId));
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        VoiceTrainingJobEntity job = findAccessibleJob(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event().name(STATUS_EVENT).data(voiceTrainingJobMapper.toResponse(job)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        if (job.getStatus().isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        emitters.register(jobId, emitter);
+
+        // Job có thể đã kết thúc giữa lúc đọc trạng thái và đăng ký
+        voiceTrainingJobRepository.findById(jobId)
+                .filter(latest -> latest.getStatus().isFinished())
+                .ifPresent(latest -> publish(latest, true));
+        return emitter;
+    }
+
+    private void runJob(String jobId, Path audioPath) {
+        VoiceTrainingJobEntity job = voiceTrainingJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            deleteQuietly(audioPath);
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            job.setStatus(VoiceTrainingStatus.TRAINING);
+            job.setStartedAt(LocalDateTime.now());
+            job = voiceTrainingJobRepository.save(job);
+            publish(job, false);
+
+            VoiceTrainResponse response = voiceServiceClient.train(buildTrainingBody(job, audioPath));
+            if (response == null || response.getModel_id() == null) {
+                throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Failed to train model or parse response");
+            }
+
+            VoiceEntity voiceEntity = new VoiceEntity();
+            voiceEntity.setName(job.getName());
+            voiceEntity.setModelPath(response.getPath());
+            voiceEntity.setModelId(response.getModel_id());
+            voiceEntity.setUploader(userRepository.findById(job.getUserId()).orElse(null));
+            VoiceEntity savedVoice = voiceRepository.save(voiceEntity);
+
+            job.setStatus(VoiceTrainingStatus.COMPLETED);
+            job.setVoiceId(savedVoice.getId());
+            log.info("Voice training job {} completed in {} ms: voice {}", jobId, System.currentTimeMillis() - startedAt, savedVoice.getId());
+        } catch (Exception e) {
+            log.error("Voice training job {} failed", jobId, e);
+            job.setStatus(VoiceTrainingStatus.FAILED);
+            job.setErrorMessage(e instanceof AppException ? e.getMessage() : "Không thể train giọng: " + e.getMessage());
+        } finally {
+            deleteQuietly(audioPath);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        publish(voiceTrainingJobRepository.save(job), true);
+    }
+
+    private MultiValueMap<String, Object> buildTrainingBody(VoiceTrainingJobEntity job, Path audioPath) {
+        String originalFilename = job.getFileName() != null ? job.getFileName() : audioPath.getFileName().toString();
+        // FileSystemResource được ghi vào multipart body theo từng đoạn từ đĩa
+        FileSystemResource fileResource = new FileSystemResource(audioPath) {
+            @Override
+            public String getFilename() {
+                return originalFilename;
+            }
+        };
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", fileResource);
+        body.add("name", job.getName());
+        body.add("f0_method", job.getF0Method());
+        body.add("epochs_number", job.getEpochsNumber());
+        body.add("user_id", job.getUserId());
+        body.add("trainAt", job.getTrainAt());
+        return body;
+    }
+
+    private void publish(VoiceTrainingJobEntity job, boolean finished) {
+        VoiceTrainingJobResponse response = voiceTrainingJobMapper.toResponse(job);
+        if (finished) {
+            emitters.complete(job.getId(), STATUS_EVENT, response);
+        } else {
+            emitters.send(job.getId(), STATUS_EVENT, response);
+        }
+    }
+
+    private VoiceTrainingJobEntity findAccessibleJob(String jobId) {
+        VoiceTrainingJobEntity job = voiceTrainingJobRepository.findById(jobId)
+                .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Không tìm thấy job train giọng"));
+        UserEntity currentUser = getCurrentUser();
+        if (!job.getUserId().equals(currentUser.getId()) && currentUser.getRole() != Role.ADMIN) {
+            throw new AppException(ErrorCode.FORBIDDEN);
+        }
+        return job;
+    }
+
+    private UserEntity getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            throw new AppException(ErrorCode.UNAUTHORIZED, "User not authenticated");
+        }
+        return (UserEntity) authentication.getPrincipal();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary training audio {}: {}", path, e.getMessage());
+        }
+    }
+}
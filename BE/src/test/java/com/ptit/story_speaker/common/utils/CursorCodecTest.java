@@ -0,0 +1,51 @@
+package com.ptit.story_speaker.common.utils;
+
+import com.ptit.story_speaker.common.exceptions.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000);
+    private static final String ID = "3f1c2a9e-7b4d-4c55-9a0e-2d8f6b1e0c44";
+
+    @Test
+    void roundTripsRecencyCursor() {
+        CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode(TIME, ID));
+
+        assertEquals(TIME, cursor.time());
+        assertEquals(ID, cursor.id());
+    }
+
+    @Test
+    void roundTripsRankedCursor() {
+        CursorCodec.RankedCursor cursor = CursorCodec.decodeRanked(CursorCodec.encodeRanked(4, TIME, ID));
+
+        assertEquals(4, cursor.rank());
+        assertEquals(TIME, cursor.time());
+        assertEquals(ID, cursor.id());
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(CursorCodec.decode(null));
+        assertNull(CursorCodec.decodeRanked(" "));
+    }
+
+    @Test
+    void rejectsRecencyCursorForRankedSearch() {
+        // Cursor của feed (không có rank) không được dùng lẫn sang tìm kiếm theo độ liên quan
+        String recency = CursorCodec.encode(TIME, ID);
+
+        assertThrows(AppException.class, () -> CursorCodec.decodeRanked(recency));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(AppException.class, () -> CursorCodec.decode("not base64 !"));
+        assertThrows(AppException.class, () -> CursorCodec.decodeRanked(CursorCodec.encode(TIME, "")));
+    }
+}
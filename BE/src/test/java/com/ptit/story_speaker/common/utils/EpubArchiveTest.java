@@ -0,0 +1,126 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Surefire chạy class này trong JVM riêng với -Xmx32m (execution low-memory-test trong pom.xml):
+ * tổng dung lượng ảnh lớn hơn heap nên nạp cả entry vào bộ nhớ sẽ OutOfMemoryError.
+ */
+class EpubArchiveTest {
+
+    private static final int CHAPTER_COUNT = 300;
+    private static final int IMAGE_COUNT = 48;
+    private static final int IMAGE_SIZE = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsPackageAndStreamsEntriesOfLargeEpub() throws IOException {
+        Path epub = writeSyntheticEpub(tempDir.resolve("large.epub"));
+
+        try (EpubArchive archive = EpubArchive.open(epub)) {
+            assertEquals("Truyện thử nghiệm", archive.getTitle());
+            assertEquals("Tác giả", archive.getAuthor());
+            assertEquals("OEBPS/Images/cover.jpg", archive.getCoverImage().href());
+
+            List<EpubArchive.Item> spine = archive.getSpine();
+            assertEquals(CHAPTER_COUNT, spine.size());
+            assertEquals("OEBPS/Text/chapter0.xhtml", spine.get(0).href());
+            assertTrue(archive.readText(spine.get(CHAPTER_COUNT - 1)).contains("Chương " + (CHAPTER_COUNT - 1)));
+
+            // Ảnh được stream qua buffer nhỏ, không cần nạp cả entry
+            byte[] buffer = new byte[8192];
+            for (int i = 0; i < IMAGE_COUNT; i++) {
+                String imageHref = EpubArchive.resolveHref(spine.get(i).href(), "../Images/img" + i + ".jpg");
+                EpubArchive.Item image = archive.getByHref(imageHref);
+                assertNotNull(image, imageHref);
+                assertTrue(image.isImage());
+
+                long total = 0;
+                try (InputStream inputStream = archive.openStream(image)) {
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        total += read;
+                    }
+                }
+                assertEquals(IMAGE_SIZE, total);
+            }
+        }
+    }
+
+    @Test
+    void resolvesRelativeAndEncodedHrefs() {
+        assertEquals("OEBPS/Images/a b.jpg", EpubArchive.resolveHref("OEBPS/Text/c1.xhtml", "../Images/a%20b.jpg"));
+        assertEquals("OEBPS/Images/a b.jpg", EpubArchive.resolveHref("OEBPS/Text/c1.xhtml", "../Images/a b.jpg"));
+        assertEquals("OEBPS/Text/c2.xhtml", EpubArchive.resolveHref("OEBPS/content.opf", "Text/c2.xhtml#part1"));
+        assertEquals("img.png", EpubArchive.resolveHref("chapter.html", "img.png"));
+    }
+
+    private Path writeSyntheticEpub(Path target) throws IOException {
+        Random random = new Random(42);
+        byte[] image = new byte[IMAGE_SIZE];
+
+        try (OutputStream fileOut = Files.newOutputStream(target);
+             ZipOutputStream zip = new ZipOutputStream(fileOut)) {
+            putText(zip, "mimetype", "application/epub+zip");
+            putText(zip, "META-INF/container.xml",
+                    "<?xml version=\"1.0\"?><container version=\"1.0\" xmlns=\"urn:oasis:names:tc:opendocument:xmlns:container\">"
+                            + "<rootfiles><rootfile full-path=\"OEBPS/content.opf\" media-type=\"application/oebps-package+xml\"/></rootfiles></container>");
+
+            StringBuilder manifest = new StringBuilder("<item id=\"cover\" href=\"Images/cover.jpg\" media-type=\"image/jpeg\" properties=\"cover-image\"/>");
+            StringBuilder spine = new StringBuilder();
+            for (int i = 0; i < CHAPTER_COUNT; i++) {
+                manifest.append("<item id=\"c").append(i).append("\" href=\"Text/chapter").append(i)
+                        .append(".xhtml\" media-type=\"application/xhtml+xml\"/>");
+                spine.append("<itemref idref=\"c").append(i).append("\"/>");
+            }
+            for (int i = 0; i < IMAGE_COUNT; i++) {
+                manifest.append("<item id=\"img").append(i).append("\" href=\"Images/img").append(i)
+                        .append(".jpg\" media-type=\"image/jpeg\"/>");
+            }
+            putText(zip, "OEBPS/content.opf",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?><package xmlns=\"http://www.idpf.org/2007/opf\" version=\"3.0\">"
+                            + "<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>Truyện thử nghiệm</dc:title>"
+                            + "<dc:creator>Tác giả</dc:creator></metadata>"
+                            + "<manifest>" + manifest + "</manifest><spine>" + spine + "</spine></package>");
+
+            for (int i = 0; i < CHAPTER_COUNT; i++) {
+                putText(zip, "OEBPS/Text/chapter" + i + ".xhtml",
+                        "<html><head><title>Chương " + i + "</title></head><body><p>Chương " + i + "</p>"
+                                + "<p>" + "Lorem ipsum dolor sit amet. ".repeat(200) + "</p></body></html>");
+            }
+            random.nextBytes(image);
+            zip.putNextEntry(new ZipEntry("OEBPS/Images/cover.jpg"));
+            zip.write(image, 0, 1024);
+            zip.closeEntry();
+            for (int i = 0; i < IMAGE_COUNT; i++) {
+                random.nextBytes(image);
+                zip.putNextEntry(new ZipEntry("OEBPS/Images/img" + i + ".jpg"));
+                zip.write(image);
+                zip.closeEntry();
+            }
+        }
+        return target;
+    }
+
+    private void putText(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ptit.story_speaker.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonFieldParserTest {
+
+    private static final Set<String> FIELDS = Set.of("meta.title", "story.beginning", "story.end");
+
+    private static final String RESPONSE = "```json\n{\n" +
+            "  \"meta\": {\"title\": \"Chú mèo \\\"Mun\\\"\", \"durationSeconds\": 180, \"tags\": [\"a\", \"b\"]},\n" +
+            "  \"characters\": [{\"name\": \"Mun\", \"role\": \"hero\"}],\n" +
+            "  \"story\": {\n" +
+            "    \"beginning\": \"Ngày xưa\\nMun \\u0111i d\\u1EA1o 😺.\",\n" +
+            "    \"middle\": \"bỏ qua\",\n" +
+            "    \"end\": \"Hết.\"\n" +
+            "  },\n" +
+            "  \"safety\": {\"safetyVerdict\": \"OK\", \"reasons\": \"\"}\n" +
+            "}\n```";
+
+    @Test
+    void extractsTrackedFieldsFromSingleChunk() {
+        Map<String, StringBuilder> received = new HashMap<>();
+        StreamingJsonFieldParser parser = new StreamingJsonFieldParser(FIELDS,
+                (path, fragment) -> received.computeIfAbsent(path, k -> new StringBuilder()).append(fragment));
+
+        parser.feed(RESPONSE);
+
+        assertTrue(parser.isComplete());
+        assertEquals("Chú mèo \"Mun\"", parser.getValue("meta.title"));
+        assertEquals("Ngày xưa\nMun đi dạo 😺.", parser.getValue("story.beginning"));
+        assertEquals("Hết.", parser.getValue("story.end"));
+        assertNull(parser.getValue("story.middle"));
+        assertNull(parser.getValue("characters.name"));
+        assertEquals(parser.getValue("story.beginning"), received.get("story.beginning").toString());
+    }
+
+    @Test
+    void producesSameValuesForAnyChunking() {
+        for (int chunkSize = 1; chunkSize <= 7; chunkSize++) {
+            List<String> fragments = new ArrayList<>();
+            StreamingJsonFieldParser parser = new StreamingJsonFieldParser(FIELDS, (path, fragment) -> {
+                assertFalse(fragment.isEmpty());
+                assertFalse(Character.isHighSurrogate(fragment.charAt(fragment.length() - 1)));
+                fragments.add(fragment);
+            });
+
+            for (int i = 0; i < RESPONSE.length(); i += chunkSize) {
+                parser.feed(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + chunkSize)));
+            }
+
+            assertTrue(parser.isComplete());
+            assertEquals("Chú mèo \"Mun\"", parser.getValue("meta.title"));
+            assertEquals("Ngày xưa\nMun đi dạo 😺.", parser.getValue("story.beginning"));
+            assertEquals("Hết.", parser.getValue("story.end"));
+            assertEquals("Chú mèo \"Mun\"Ngày xưa\nMun đi dạo 😺.Hết.", String.join("", fragments));
+        }
+    }
+
+    @Test
+    void emitsTextBeforeObjectIsComplete() {
+        List<String> fragments = new ArrayList<>();
+        StreamingJsonFieldParser parser = new StreamingJsonFieldParser(FIELDS, (path, fragment) -> fragments.add(fragment));
+
+        parser.feed("{\"story\": {\"beginning\": \"Ngày xưa, ");
+        assertEquals(List.of("Ngày xưa, "), fragments);
+        assertFalse(parser.isComplete());
+
+        parser.feed("có một");
+        assertEquals(List.of("Ngày xưa, ", "có một"), fragments);
+    }
+
+    @Test
+    void keepsMalformedUnicodeEscapesVerbatim() {
+        StreamingJsonFieldParser parser = new StreamingJsonFieldParser(FIELDS, (path, fragment) -> { });
+
+        parser.feed("{\"meta\": {\"title\": \"a\\u00zz b\\u12\"}, \"story\": {\"end\": \"\\u0041\\uXYZW\"}}");
+
+        assertTrue(parser.isComplete());
+        assertEquals("a\\u00zz b\\u12", parser.getValue("meta.title"));
+        assertEquals("A\\uXYZW", parser.getValue("story.end"));
+    }
+}
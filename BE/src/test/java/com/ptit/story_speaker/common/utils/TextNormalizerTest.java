@@ -0,0 +1,47 @@
+package com.ptit.story_speaker.common.utils;
+
+import com.ptit.story_speaker.domain.entity.StoryEntity;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldsAccentsCaseAndWhitespace() {
+        assertEquals("co tich", TextNormalizer.fold("  Cổ   Tích "));
+        assertEquals("duong ve nha", TextNormalizer.fold("ĐƯỜNG về NHÀ"));
+        assertEquals("su tich cay vu sua", TextNormalizer.fold("Sự tích\tcây\nvú sữa"));
+        assertNull(TextNormalizer.fold(null));
+    }
+
+    @Test
+    void foldsDecomposedAndComposedInputTheSame() {
+        // Bàn phím / trình duyệt có thể gửi dấu dạng tổ hợp (NFD)
+        String composed = "Thạch Sanh";
+        String decomposed = java.text.Normalizer.normalize(composed, java.text.Normalizer.Form.NFD);
+
+        assertEquals(TextNormalizer.fold(composed), TextNormalizer.fold(decomposed));
+    }
+
+    @Test
+    void keywordMatchesStoredSearchColumnsRegardlessOfAccentsAndCase() {
+        String searchText = StoryEntity.buildSearchText("Sọ Dừa", "Dân gian Việt Nam", "Chuyện về chàng Sọ Dừa.");
+
+        assertEquals("so dua dan gian viet nam chuyen ve chang so dua.", searchText);
+        assertTrue(searchText.contains(TextNormalizer.fold("SO DUA")));
+        assertTrue(searchText.contains(TextNormalizer.fold("việt  nam")));
+        assertEquals(TextNormalizer.fold("Sọ Dừa"), TextNormalizer.fold("sọ dừa"));
+    }
+
+    @Test
+    void buildSearchTextSkipsMissingParts() {
+        assertEquals("tam cam", StoryEntity.buildSearchText("Tấm Cám", null, null));
+        assertEquals("", StoryEntity.buildSearchText(null, null, null));
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertEquals("100\\% \\_a\\\\b", TextNormalizer.escapeLike("100% _a\\b"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.domain.dto.request.StoryGenerationRequest;
+import com.ptit.story_speaker.domain.dto.response.ChapterSummaryResponse;
+import com.ptit.story_speaker.domain.dto.response.StoryResponse;
+import com.ptit.story_speaker.domain.entity.ChapterEntity;
+import com.ptit.story_speaker.domain.entity.StoryEntity;
+import com.ptit.story_speaker.domain.entity.UserEntity;
+import com.ptit.story_speaker.domain.mapper.ChapterMapper;
+import com.ptit.story_speaker.domain.mapper.StoryMapper;
+import com.ptit.story_speaker.repository.ChapterRepository;
+import com.ptit.story_speaker.repository.StoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AIServiceImplStreamTest {
+
+    private static final List<String> CHUNKS = List.of(
+            "```json\n{\"meta\": {\"title\": \"Chú mèo",
+            " Mun\", \"description\": \"Truyện ngủ ngon\"},",
+            " \"story\": {\"beginning\": \"Ngày xưa, ",
+            "có chú mèo Mun.\", \"middle\": \"Mun đi dạo",
+            " trong vườn.\", \"end\": \"Mun ngủ ngon.\"},",
+            " \"safety\": {\"safetyVerdict\": \"OK\", \"reasons\": \"\"}}\n```");
+
+    // Thứ tự sự kiện: "text" khi listener nhận văn bản, "save" khi lưu truyện
+    private final List<String> timeline = Collections.synchronizedList(new ArrayList<>());
+
+    private StoryRepository storyRepository;
+    private ChapterRepository chapterRepository;
+
+    @BeforeEach
+    void setUp() {
+        storyRepository = mock(StoryRepository.class);
+        chapterRepository = mock(ChapterRepository.class);
+        when(storyRepository.save(any(StoryEntity.class))).thenAnswer(invocation -> {
+            timeline.add("save");
+            StoryEntity story = invocation.getArgument(0);
+            story.setId("story-1");
+            return story;
+        });
+        when(chapterRepository.save(any(ChapterEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void forwardsTextBeforeSavingStory() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+
+        newService(CHUNKS).streamStory(new StoryGenerationRequest(), new UserEntity(), listener);
+
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertNull(listener.error.get());
+        assertEquals("story-1", listener.completed.get().getId());
+
+        assertEquals("Chú mèo Mun", listener.textOf("meta.title"));
+        assertEquals("Ngày xưa, có chú mèo Mun.", listener.textOf("story.beginning"));
+        assertEquals("Mun ngủ ngon.", listener.textOf("story.end"));
+        // Văn bản được đẩy theo từng chunk, trước khi truyện được lưu
+        assertTrue(listener.fragments.size() > 5);
+        assertTrue(timeline.indexOf("text") < timeline.indexOf("save"));
+
+        verify(storyRepository).save(argThat(story -> "Chú mèo Mun".equals(story.getTitle())
+                && "Truyện ngủ ngon".equals(story.getDescription())));
+        verify(chapterRepository).save(argThat(chapter ->
+                "Ngày xưa, có chú mèo Mun.\n\nMun đi dạo trong vườn.\n\nMun ngủ ngon.".equals(chapter.getContent())));
+    }
+
+    @Test
+    void doesNotSaveTruncatedResponse() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+
+        newService(CHUNKS.subList(0, 3)).streamStory(new StoryGenerationRequest(), new UserEntity(), listener);
+
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertNotNull(listener.error.get());
+        assertNull(listener.completed.get());
+        verify(storyRepository, never()).save(any());
+    }
+
+    private AIServiceImpl newService(List<String> chunks) {
+        StoryMapper storyMapper = mock(StoryMapper.class);
+        when(storyMapper.toStoryResponse(any())).thenAnswer(invocation -> {
+            StoryEntity story = invocation.getArgument(0);
+            StoryResponse response = new StoryResponse();
+            response.setId(story.getId());
+            response.setTitle(story.getTitle());
+            return response;
+        });
+        ChapterMapper chapterMapper = mock(ChapterMapper.class);
+        when(chapterMapper.toSummaryResponse(any())).thenReturn(new ChapterSummaryResponse());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new AIServiceImpl(ChatClient.builder(new FakeChatModel(chunks)), null, storyRepository, chapterRepository,
+                storyMapper, chapterMapper, null, null, null, null, null, transactionTemplate);
+    }
+
+    /**
+     * ChatModel giả: trả lần lượt các chunk cố định như một stream của Gemini.
+     */
+    private static class FakeChatModel implements ChatModel {
+        private final List<String> chunks;
+
+        FakeChatModel(List<String> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return toResponse(String.join("", chunks));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.fromIterable(chunks).map(FakeChatModel::toResponse);
+        }
+
+        private static ChatResponse toResponse(String text) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+        }
+    }
+
+    private class RecordingListener implements AIServiceImpl.StoryStreamListener {
+        final List<String[]> fragments = Collections.synchronizedList(new ArrayList<>());
+        final AtomicReference<StoryResponse> completed = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onText(String field, String text) {
+            timeline.add("text");
+            fragments.add(new String[]{field, text});
+        }
+
+        @Override
+        public void onCompleted(StoryResponse story) {
+            completed.set(story);
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            done.countDown();
+        }
+
+        String textOf(String field) {
+            StringBuilder text = new StringBuilder();
+            synchronized (fragments) {
+                fragments.stream().filter(f -> f[0].equals(field)).forEach(f -> text.append(f[1]));
+            }
+            return text.toString();
+        }
+    }
+}
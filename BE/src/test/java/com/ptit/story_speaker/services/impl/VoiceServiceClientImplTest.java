@@ -0,0 +1,263 @@
+package com.ptit.story_speaker.services.impl;
+
+import com.ptit.story_speaker.common.configurations.VoiceServiceProperties;
+import com.ptit.story_speaker.common.exceptions.AppException;
+import com.ptit.story_speaker.common.exceptions.ErrorCode;
+import com.ptit.story_speaker.common.utils.CircuitBreaker;
+import com.ptit.story_speaker.domain.dto.request.TextToSpeechRequest;
+import com.ptit.story_speaker.domain.dto.response.TextToSpeechResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoiceServiceClientImplTest {
+
+    private static final String SYNTHESIS_PATH = "/text-to-speech-and-infer/";
+    private static final String TRAINING_PATH = "/train-model/";
+    private static final String TRAIN_BODY = "{\"name\":\"voice\",\"minio_model_url\":\"http://minio/model.pth\",\"model_id_for_infer\":\"model-1\"}";
+    private static final String OK_BODY = "{\"message\":\"ok\",\"url\":\"http://minio/audio.wav\"}";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private VoiceServiceProperties properties;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        properties = new VoiceServiceProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setConnectTimeout(Duration.ofSeconds(2));
+        properties.setSynthesisTimeout(Duration.ofSeconds(5));
+        properties.setBulkheadWait(Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void synthesizesOverReusedConnection() {
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        server.createContext(SYNTHESIS_PATH, exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, 200, OK_BODY);
+        });
+        VoiceServiceClientImpl client = newClient();
+
+        for (int i = 0; i < 5; i++) {
+            TextToSpeechResponse response = client.synthesize(new TextToSpeechRequest("Xin chào", "voice-1", "vi"));
+            assertEquals("http://minio/audio.wav", response.getAudioPath());
+        }
+        // Keep-alive: các request tuần tự dùng lại cùng một kết nối
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void opensCircuitAfterConsecutiveServerErrors() {
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext(SYNTHESIS_PATH, exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 500, "{\"detail\":\"boom\"}");
+        });
+        properties.setFailureThreshold(3);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        VoiceServiceClientImpl client = newClient();
+
+        for (int i = 0; i < 3; i++) {
+            assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.synthesize(request()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getSynthesisCircuitState());
+
+        // Mạch đang mở: từ chối ngay, không gọi tới dịch vụ
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.synthesize(request()));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void closesCircuitAfterSuccessfulTrialRequest() throws InterruptedException {
+        AtomicInteger status = new AtomicInteger(500);
+        server.createContext(SYNTHESIS_PATH, exchange -> respond(exchange, status.get(), OK_BODY));
+        properties.setFailureThreshold(1);
+        properties.setOpenDuration(Duration.ofMillis(200));
+        VoiceServiceClientImpl client = newClient();
+
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.synthesize(request()));
+        assertEquals(CircuitBreaker.State.OPEN, client.getSynthesisCircuitState());
+
+        status.set(200);
+        Thread.sleep(300);
+        assertNotNull(client.synthesize(request()));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getSynthesisCircuitState());
+    }
+
+    @Test
+    void trainingFailuresDoNotOpenSynthesisCircuit() {
+        server.createContext(TRAINING_PATH, exchange -> respond(exchange, 500, "{\"detail\":\"boom\"}"));
+        server.createContext(SYNTHESIS_PATH, exchange -> respond(exchange, 200, OK_BODY));
+        properties.setFailureThreshold(1);
+        VoiceServiceClientImpl client = newClient();
+
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.train(trainingBody()));
+        assertEquals(CircuitBreaker.State.OPEN, client.getTrainingCircuitState());
+
+        assertNotNull(client.synthesize(request()));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getSynthesisCircuitState());
+    }
+
+    @Test
+    void halfOpenTrialOnlyBlocksItsOwnOperation() throws Exception {
+        AtomicInteger trainingStatus = new AtomicInteger(500);
+        CountDownLatch trialReceived = new CountDownLatch(1);
+        CountDownLatch releaseTrial = new CountDownLatch(1);
+        server.createContext(TRAINING_PATH, exchange -> {
+            if (trainingStatus.get() == 200) {
+                trialReceived.countDown();
+                await(releaseTrial);
+            }
+            respond(exchange, trainingStatus.get(), TRAIN_BODY);
+        });
+        server.createContext(SYNTHESIS_PATH, exchange -> respond(exchange, 200, OK_BODY));
+        properties.setFailureThreshold(1);
+        properties.setOpenDuration(Duration.ofMillis(200));
+        properties.setMaxConcurrentTraining(2);
+        VoiceServiceClientImpl client = newClient();
+
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.train(trainingBody()));
+        trainingStatus.set(200);
+        Thread.sleep(300);
+
+        // Request thử của train model đang chạy (half-open)
+        CompletableFuture<?> trial = CompletableFuture.supplyAsync(() -> client.train(trainingBody()));
+        assertTrue(trialReceived.await(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getTrainingCircuitState());
+
+        // Train khác bị từ chối ngay, tổng hợp giọng không bị ảnh hưởng
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.train(trainingBody()));
+        assertNotNull(client.synthesize(request()));
+
+        releaseTrial.countDown();
+        assertNotNull(trial.get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getTrainingCircuitState());
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        server.createContext(SYNTHESIS_PATH, exchange -> respond(exchange, 400, "{\"detail\":\"bad\"}"));
+        properties.setFailureThreshold(1);
+        VoiceServiceClientImpl client = newClient();
+
+        assertThrows(HttpClientErrorException.class, () -> client.synthesize(request()));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getSynthesisCircuitState());
+    }
+
+    @Test
+    void readTimeoutIsReportedAsUnavailable() {
+        server.createContext(SYNTHESIS_PATH, exchange -> {
+            sleep(2000);
+            respond(exchange, 200, OK_BODY);
+        });
+        properties.setSynthesisTimeout(Duration.ofMillis(300));
+        VoiceServiceClientImpl client = newClient();
+
+        long start = System.nanoTime();
+        assertErrorCode(ErrorCode.VOICE_SERVICE_UNAVAILABLE, () -> client.synthesize(request()));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+    }
+
+    @Test
+    void rejectsWhenBulkheadIsFull() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext(SYNTHESIS_PATH, exchange -> {
+            received.countDown();
+            await(release);
+            respond(exchange, 200, OK_BODY);
+        });
+        properties.setMaxConcurrentSynthesis(1);
+        VoiceServiceClientImpl client = newClient();
+
+        CompletableFuture<TextToSpeechResponse> first = CompletableFuture.supplyAsync(() -> client.synthesize(request()));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+
+        assertErrorCode(ErrorCode.VOICE_SERVICE_BUSY, () -> client.synthesize(request()));
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        // Bulkhead bị từ chối không tính là lỗi của dịch vụ
+        assertEquals(CircuitBreaker.State.CLOSED, client.getSynthesisCircuitState());
+    }
+
+    private VoiceServiceClientImpl newClient() {
+        return new VoiceServiceClientImpl(RestClient.builder(), properties);
+    }
+
+    private static TextToSpeechRequest request() {
+        return new TextToSpeechRequest("Xin chào", "voice-1", "vi");
+    }
+
+    private static MultiValueMap<String, Object> trainingBody() {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("name", "voice");
+        return body;
+    }
+
+    private static void assertErrorCode(ErrorCode expected, Runnable call) {
+        AppException e = assertThrows(AppException.class, call::run);
+        assertEquals(expected, e.getErrorCode());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.hiendao.data.remote.retrofit.book
 
 import com.hiendao.data.remote.retrofit.book.model.BookResponseDTO
 import com.hiendao.data.remote.retrofit.book.model.BooksResponseDTO
+import com.hiendao.data.remote.retrofit.book.model.CursorBooksResponseDTO
+import com.hiendao.data.remote.retrofit.book.model.ImportJobDTO
 import com.hiendao.data.remote.retrofit.book.model.ListBookResponse
 import com.hiendao.data.remote.retrofit.book.model.SearchBooksBody
 import okhttp3.MultipartBody
@@ -43,6 +45,31 @@ interface BookApi {
         @Query("sort") sort: String = "createDate"
     ): BooksResponseDTO
 
+    @GET("stories/cursor")
+    suspend fun getBooksByCursor(
+        @Query("cursor") cursor: String? = null,
+        @Query("size") size: Int = 10
+    ): CursorBooksResponseDTO
+
+    @GET("stories/favorites/cursor")
+    suspend fun getFavouriteBooksByCursor(
+        @Query("cursor") cursor: String? = null,
+        @Query("size") size: Int = 10
+    ): CursorBooksResponseDTO
+
+    @GET("stories/recently-read/cursor")
+    suspend fun getRecentlyReadBooksByCursor(
+        @Query("cursor") cursor: String? = null,
+        @Query("size") size: Int = 10
+    ): CursorBooksResponseDTO
+
+    @POST("stories/search/cursor")
+    suspend fun searchBooksByCursor(
+        @Query("cursor") cursor: String? = null,
+        @Query("size") size: Int = 10,
+        @Body searchBody: SearchBooksBody
+    ): CursorBooksResponseDTO
+
     @GET("stories/my-library")
     suspend fun getLibraryBooks(
         @Query("page") page: Int = 0,
@@ -54,7 +81,12 @@ interface BookApi {
     @POST("stories/import-epub")
     suspend fun extractEpubBook(
         @Part epubFile: MultipartBody.Part
-    ): BookResponseDTO
+    ): ImportJobDTO
+
+    @GET("stories/import-jobs/{jobId}")
+    suspend fun getImportJob(
+        @Path("jobId") jobId: String
+    ): ImportJobDTO
 
     @GET("")
     suspend fun getBookOfCategory(
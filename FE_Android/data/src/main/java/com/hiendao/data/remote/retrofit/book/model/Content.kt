@@ -3,6 +3,7 @@ package com.hiendao.data.remote.retrofit.book.model
 data class Content(
     val author: String,
     val coverImageUrl: String?=null,
+    val coverThumbnailUrl: String?=null,
     val id: String,
     val isFavorite: Boolean,
     val status: String,
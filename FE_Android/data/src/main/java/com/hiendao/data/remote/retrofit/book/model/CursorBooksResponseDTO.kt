@@ -0,0 +1,8 @@
+package com.hiendao.data.remote.retrofit.book.model
+
+data class CursorBooksResponseDTO(
+    val content: List<Content> = emptyList(),
+    val nextCursor: String? = null,
+    val hasNext: Boolean = false,
+    val size: Int = 0
+)
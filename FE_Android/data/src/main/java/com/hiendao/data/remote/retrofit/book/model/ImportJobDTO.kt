@@ -0,0 +1,13 @@
+package com.hiendao.data.remote.retrofit.book.model
+
+data class ImportJobDTO(
+    val id: String,
+    val status: String,
+    val fileName: String? = null,
+    val totalChapters: Int = 0,
+    val processedChapters: Int = 0,
+    val totalImages: Int = 0,
+    val uploadedImages: Int = 0,
+    val storyId: String? = null,
+    val errorMessage: String? = null
+)
@@ -2,10 +2,10 @@ package com.hiendao.data.remote.retrofit.voice
 
 import com.hiendao.data.remote.retrofit.book.model.SearchBooksBody
 import com.hiendao.data.remote.retrofit.voice.model.GenerateVoiceBody
-import com.hiendao.data.remote.retrofit.voice.model.TrainModelResponse
 import com.hiendao.data.remote.retrofit.voice.model.VoiceResponse
 import com.hiendao.data.remote.retrofit.voice.model.VoiceResponseItem
 import com.hiendao.data.remote.retrofit.voice.model.VoiceStoryResponse
+import com.hiendao.data.remote.retrofit.voice.model.VoiceTrainingJobDTO
 import okhttp3.MultipartBody
 import okhttp3.RequestBody
 import retrofit2.http.Body
@@ -13,6 +13,7 @@ import retrofit2.http.GET
 import retrofit2.http.Multipart
 import retrofit2.http.POST
 import retrofit2.http.Part
+import retrofit2.http.Path
 import retrofit2.http.Query
 
 interface VoiceApi {
@@ -25,7 +26,12 @@ interface VoiceApi {
         @Part("epochsNumber") epochsNumber: RequestBody,
         @Part("userId") userId: RequestBody,
         @Part("trainAt") trainAt: RequestBody
-    ): TrainModelResponse
+    ): VoiceTrainingJobDTO
+
+    @GET("ai/training-jobs/{jobId}")
+    suspend fun getTrainingJob(
+        @Path("jobId") jobId: String
+    ): VoiceTrainingJobDTO
 
     @GET("ai/my-voices")
     suspend fun getMyVoices(): List<VoiceResponseItem>
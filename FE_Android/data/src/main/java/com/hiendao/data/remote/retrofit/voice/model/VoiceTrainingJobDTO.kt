@@ -0,0 +1,10 @@
+package com.hiendao.data.remote.retrofit.voice.model
+
+data class VoiceTrainingJobDTO(
+    val id: String,
+    val status: String,
+    val name: String? = null,
+    val fileName: String? = null,
+    val voiceId: String? = null,
+    val errorMessage: String? = null
+)
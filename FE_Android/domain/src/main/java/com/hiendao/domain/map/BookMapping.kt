@@ -15,7 +15,8 @@ fun Content.toDomain(inLibrary: Boolean = false): Book {
         title = this.title,
         author = this.author,
         url = this.id,
-        coverImageUrl = this.coverImageUrl ?: "",
+        // Card dùng thumbnail nếu server đã sinh xong
+        coverImageUrl = this.coverThumbnailUrl ?: this.coverImageUrl ?: "",
         completed = this.status == Constants.BookStatus.COMPLETED,
         isFavourite = isFavorite,
         inLibrary = inLibrary
@@ -304,7 +304,16 @@ class LibraryBooksRepository @Inject constructor(
             emit(Response.Loading)
             val requestFile = epubFile.asRequestBody("application/epub+zip".toMediaTypeOrNull())
             val epubPart = MultipartBody.Part.createFormData("file", epubFile.name, requestFile)
-            val response = bookApi.extractEpubBook(epubPart)
+            // Server import nền: chờ job xong rồi lấy truyện đã lưu
+            var job = bookApi.extractEpubBook(epubPart)
+            while (job.status != "COMPLETED" && job.status != "FAILED") {
+                delay(timeMillis = 1_000)
+                job = bookApi.getImportJob(job.id)
+            }
+            if (job.status == "FAILED" || job.storyId == null) {
+                throw IllegalStateException(job.errorMessage ?: "Import failed")
+            }
+            val response = bookApi.getBookDetail(job.storyId)
             val bookEntity = response.toEntity()
             libraryDao.upsertBook(bookEntity)
             var chapters = response.chapters
@@ -314,12 +323,15 @@ class LibraryBooksRepository @Inject constructor(
                 }
                 val server = it.toEntity(response.id.toString())
                 chapterDao.insertChapter(server)
-                chapterBodyDao.insertReplace(
-                    ChapterBodyEntity(
-                        chapterId = it.id!!,
-                        body = it.content?.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms") ?: ""
+                // Mục lục không kèm nội dung chương: không ghi đè body đã tải trước đó
+                it.content?.let { content ->
+                    chapterBodyDao.insertReplace(
+                        ChapterBodyEntity(
+                            chapterId = it.id!!,
+                            body = content.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms")
+                        )
                     )
-                )
+                }
             }
             emit(Response.Success(bookEntity.toDomain()))
         } catch (e : Exception){
@@ -37,12 +37,15 @@ class StoryRepositoryImpl @Inject constructor(
                     }
                     val server = it.toEntity(bookResponse.id!!)
                     chapterDao.insertChapter(server)
-                    chapterBodyDao.insertReplace(
-                        ChapterBodyEntity(
-                            chapterId = it.id!!,
-                            body = it.content?.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms") ?: ""
+                    // Mục lục không kèm nội dung chương: không ghi đè body đã tải trước đó
+                    it.content?.let { content ->
+                        chapterBodyDao.insertReplace(
+                            ChapterBodyEntity(
+                                chapterId = it.id!!,
+                                body = content.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms")
+                            )
                         )
-                    )
+                    }
                 }
                 emit(Response.Success(bookResponse.id.toString()))
             } catch (e: Exception) {
@@ -1,8 +1,9 @@
 package com.hiendao.domain.repository
 
 import com.hiendao.data.remote.retrofit.voice.VoiceApi
-import com.hiendao.data.remote.retrofit.voice.model.TrainModelResponse
+import com.hiendao.data.remote.retrofit.voice.model.VoiceTrainingJobDTO
 import com.hiendao.domain.model.CreateVoiceRequest
+import kotlinx.coroutines.delay
 import okhttp3.MediaType.Companion.toMediaTypeOrNull
 import okhttp3.MultipartBody
 import javax.inject.Inject
@@ -10,13 +11,13 @@ import okhttp3.RequestBody.Companion.asRequestBody
 import okhttp3.RequestBody.Companion.toRequestBody
 
 interface VoiceRepository {
-    suspend fun createVoice(request: CreateVoiceRequest): Result<TrainModelResponse>
+    suspend fun createVoice(request: CreateVoiceRequest): Result<VoiceTrainingJobDTO>
 }
 
 class VoiceRepositoryImpl @Inject constructor(
     private val voiceApi: VoiceApi
 ) : VoiceRepository {
-    override suspend fun createVoice(request: CreateVoiceRequest): Result<TrainModelResponse> {
+    override suspend fun createVoice(request: CreateVoiceRequest): Result<VoiceTrainingJobDTO> {
         return try {
             val namePart = request.name.toRequestBody(null)
             val f0MethodPart = request.f0Method.toRequestBody(null)
@@ -28,8 +29,16 @@ class VoiceRepositoryImpl @Inject constructor(
             val requestFile = request.audioFile.asRequestBody("audio/*".toMediaTypeOrNull())
             val audioPart = MultipartBody.Part.createFormData("file", request.audioFile.name, requestFile)
 
-            val response = voiceApi.createVoice(namePart, audioPart, f0MethodPart, epochsNumberPart, userIdPart, trainAtPart)
-            Result.success(response)
+            // Server train nền: chờ job xong
+            var job = voiceApi.createVoice(namePart, audioPart, f0MethodPart, epochsNumberPart, userIdPart, trainAtPart)
+            while (job.status != "COMPLETED" && job.status != "FAILED") {
+                delay(timeMillis = 5_000)
+                job = voiceApi.getTrainingJob(job.id)
+            }
+            if (job.status == "FAILED") {
+                throw IllegalStateException(job.errorMessage ?: "Training failed")
+            }
+            Result.success(job)
         } catch (e: Exception) {
             Result.failure(e)
         }
@@ -284,9 +284,6 @@ fun AppNavHost(
                                         val lastReadChapter = chaptersViewModel.getLastReadChapter()
                                             ?: chaptersViewModel.state.chapters.minByOrNull { it.chapter.position }?.chapter?.id
                                             ?: return@launch
-                                        launch {
-                                            chaptersViewModel.getChapterDetail(bookId, lastReadChapter)
-                                        }
                                         onBookOpen?.invoke(chaptersViewModel.bookUrl.value, lastReadChapter)
                                     }
                                 },
@@ -306,12 +303,7 @@ fun AppNavHost(
                                 onSelectAllChapters = chaptersViewModel::selectAll,
                                 onCloseSelectionBar = chaptersViewModel::unselectAll,
                                 onChapterClick = { chapter ->
-                                   scope.launch {
-                                       launch {
-                                           chaptersViewModel.getChapterDetail(chaptersViewModel.bookUrl.value, chapter.chapter.id)
-                                       }
-                                       onBookOpen?.invoke(chaptersViewModel.bookUrl.value, chapter.chapter.id)
-                                   }
+                                   onBookOpen?.invoke(chaptersViewModel.bookUrl.value, chapter.chapter.id)
                                 },
                                 onChapterLongClick = chaptersViewModel::onChapterLongClick,
                                 onSelectionModeChapterClick = chaptersViewModel::onSelectionModeChapterClick,
@@ -76,12 +76,15 @@ class ChaptersRepository @Inject constructor(
                         server
                     }
                     chapterDao.insertChapter(merged)
-                    chapterBodyDao.insertReplace(
-                        ChapterBodyEntity(
-                            chapterId = it.id!!,
-                            body = it.content?.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms") ?: ""
+                    // Mục lục không kèm nội dung chương: không ghi đè body đã tải trước đó
+                    it.content?.let { content ->
+                        chapterBodyDao.insertReplace(
+                            ChapterBodyEntity(
+                                chapterId = it.id!!,
+                                body = content.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms")
+                            )
                         )
-                    )
+                    }
                 }
 
                 val book = bookResponse.toDomain()
@@ -128,12 +131,15 @@ class ChaptersRepository @Inject constructor(
                         server
                     }
                     chapterDao.insertChapter(merged)
-                    chapterBodyDao.insertReplace(
-                        ChapterBodyEntity(
-                            chapterId = it.id!!,
-                            body = it.content?.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms") ?: ""
+                    // Mục lục không kèm nội dung chương: không ghi đè body đã tải trước đó
+                    it.content?.let { content ->
+                        chapterBodyDao.insertReplace(
+                            ChapterBodyEntity(
+                                chapterId = it.id!!,
+                                body = content.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms")
+                            )
                         )
-                    )
+                    }
                 }
 
                 val book = bookResponse.toDomain()
@@ -161,11 +167,15 @@ class ChaptersRepository @Inject constructor(
         appRepository.libraryBooks.get(bookUrl)?.lastReadChapter
             ?: appRepository.bookChapters.getFirstChapter(bookUrl)?.id
 
-    suspend fun getChapterDetail(chapterId: String, bookId: String) {
-        try {
+    /**
+     * Tải nội dung chương từ server và lưu vào DB local (story detail chỉ trả mục lục, không có nội dung).
+     */
+    suspend fun getChapterDetail(chapterId: String, bookId: String): Response<String> {
+        return try {
             val chapterResponse = chapterApi.getChapterDetail(chapterId)
-            if(chapterResponse.id.isNullOrEmpty() || chapterResponse.content.isNullOrEmpty()) {
-                return
+            val content = chapterResponse.content
+            if (chapterResponse.id.isNullOrEmpty() || content == null) {
+                return Response.Error("Chapter $chapterId has no content", Exception())
             }
             val local = chapterDao.get(chapterResponse.id!!)
             val server = chapterResponse.toEntity(bookId)
@@ -179,15 +189,17 @@ class ChaptersRepository @Inject constructor(
                 server
             }
             chapterDao.insertChapter(merged)
+            val body = content.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms")
             chapterBodyDao.insertReplace(
                 ChapterBodyEntity(
                     chapterId = chapterResponse.id!!,
-                    body = chapterResponse.content?.replace("http://127.0.0.1:9000", "https://ctd37qdd-9000.asse.devtunnels.ms") ?: ""
+                    body = body
                 )
             )
+            Response.Success(body)
         } catch (e : Exception){
-            // Ignore errors
             Timber.tag("ChaptersRepository").e(e, "getChapterDetail: error: ${e.message}" )
+            Response.Error("Unable to load chapter $chapterId: ${e.message}", e)
         }
     }
 }
\ No newline at end of file
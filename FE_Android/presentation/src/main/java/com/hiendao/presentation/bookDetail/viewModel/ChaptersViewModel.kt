@@ -180,10 +180,6 @@ internal class ChaptersViewModel @Inject constructor(
         toasty.show(R.string.updating_book_info)
     }
 
-    suspend fun getChapterDetail(bookId: String, chapterId: String){
-        chaptersRepository.getChapterDetail(chapterId = chapterId, bookId = bookId)
-    }
-
     suspend fun getLastReadChapter(): String? =
         chaptersRepository.getLastReadChapter(bookUrl = bookUrl.value)
 
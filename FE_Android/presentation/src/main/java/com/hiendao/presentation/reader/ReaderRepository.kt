@@ -11,6 +11,8 @@ import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
 import com.hiendao.domain.repository.BookChaptersRepository
 import com.hiendao.domain.repository.LibraryBooksRepository
+import com.hiendao.domain.utils.Response
+import com.hiendao.presentation.bookDetail.ChaptersRepository
 import com.hiendao.presentation.reader.domain.ChapterState
 import com.hiendao.presentation.reader.domain.InitialPositionChapter
 import javax.inject.Inject
@@ -23,6 +25,7 @@ internal class ReaderRepository @Inject constructor(
     private val bookChaptersRepository: BookChaptersRepository,
     private val libraryBooksRepository: LibraryBooksRepository,
     private val appRepository: AppRepository,
+    private val chaptersRepository: ChaptersRepository,
 ) {
 
     fun saveBookLastReadPositionState(
@@ -76,6 +79,12 @@ internal class ReaderRepository @Inject constructor(
         }
     }
 
-    suspend fun downloadChapter(chapterUrl: String) =
-        appRepository.chapterBody.getBody(chapterUrl)
+    /**
+     * Nội dung chương: đọc từ DB local, chưa có thì tải từ server (và lưu lại) ngay trong lúc reader nạp chương.
+     */
+    suspend fun downloadChapter(bookUrl: String, chapterUrl: String): Response<String> =
+        when (val local = appRepository.chapterBody.getBody(chapterUrl)) {
+            is Response.Success -> local
+            else -> chaptersRepository.getChapterDetail(chapterId = chapterUrl, bookId = bookUrl)
+        }
 }
\ No newline at end of file
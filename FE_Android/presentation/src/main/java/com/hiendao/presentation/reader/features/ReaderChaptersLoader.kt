@@ -442,7 +442,7 @@ internal class ReaderChaptersLoader(
             readerViewHandlersActions.doForceUpdateListViewState()
         }
 
-        when (val res = readerRepository.downloadChapter(chapter.id)) {
+        when (val res = readerRepository.downloadChapter(bookUrl, chapter.id)) {
             is Response.Success -> {
                 // Split chapter text into items
                 val itemsOriginal = textToItemsConverter(
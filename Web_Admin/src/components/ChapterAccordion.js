@@ -68,7 +68,9 @@ export function ChapterAccordion({
                     <span className="text-xs text-slate-500">
                       {chapter.content
                         ? `${chapter.content.length} ký tự`
-                        : 'Chưa có nội dung'}
+                        : chapter.wordCount
+                          ? `${chapter.wordCount} từ`
+                          : 'Chưa có nội dung'}
                     </span>
                   </div>
                 </div>
@@ -110,8 +112,13 @@ export function ChapterAccordion({
                   />
                   <Textarea
                     label="Nội dung chương"
-                    placeholder="Nhập nội dung chương truyện tại đây..."
-                    value={chapter.content}
+                    placeholder={
+                      chapter.contentLoaded === false
+                        ? 'Đang tải nội dung...'
+                        : 'Nhập nội dung chương truyện tại đây...'
+                    }
+                    value={chapter.content ?? ''}
+                    disabled={chapter.contentLoaded === false}
                     onChange={(e) =>
                       onUpdateChapter(chapter.id, 'content', e.target.value)
                     }
@@ -24,6 +24,7 @@ export default function CreateStory() {
     status: 'DRAFT',
     coverImage: null, // File object if manual upload
     coverImageUrl: '', // URL string if extracted
+    uploadSessionId: null, // Upload session of the extracted EPUB images
     genres: [],
   })
   
@@ -88,6 +89,7 @@ export default function CreateStory() {
         ageRating: extractedData.ageRating || '',
         coverImageUrl: extractedData.coverImageUrl || '',
         genres: extractedData.categories || [],
+        uploadSessionId: extractedData.uploadSessionId || null,
         coverImage: null // Reset manual file if any
       }))
 
@@ -128,6 +130,7 @@ export default function CreateStory() {
           coverImageUrl: formData.coverImageUrl,
           status: formData.status, // Added status field
           categories: formData.genres,
+          uploadSessionId: formData.uploadSessionId,
           chapters: chapters.map((ch, index) => ({
             title: ch.title,
             chapterNumber: index + 1,
@@ -68,7 +68,11 @@ export default function EditStory() {
           setChapters(data.chapters.map(ch => ({
             id: ch.id, // Keep original ID for update logic
             title: ch.title,
-            content: ch.content,
+            // Mục lục không kèm nội dung: tải khi mở chương, chỉ gửi lại nếu đã sửa
+            content: null,
+            contentLoaded: false,
+            contentDirty: false,
+            wordCount: ch.wordCount,
             chapterNumber: ch.chapterNumber
           })))
         }
@@ -101,6 +105,7 @@ export default function EditStory() {
       id: newId,
       title: '',
       content: '',
+      contentLoaded: true,
       isNew: true // Flag to identify new chapters
     }
     setChapters((prev) => [...prev, newChapter])
@@ -114,11 +119,36 @@ export default function EditStory() {
           ? {
               ...ch,
               [field]: value,
+              ...(field === 'content' ? { contentDirty: true } : {}),
             }
           : ch,
       ),
     )
   }
+
+  const loadChapterContent = async (chapterId) => {
+    try {
+      const chapter = await storyService.getChapterById(chapterId)
+      setChapters((prev) =>
+        prev.map((ch) =>
+          ch.id === chapterId && !ch.contentLoaded
+            ? { ...ch, content: chapter.content || '', contentLoaded: true }
+            : ch,
+        ),
+      )
+    } catch (error) {
+      console.error('Error fetching chapter:', error)
+      alert('Không thể tải nội dung chương.')
+    }
+  }
+
+  const handleToggleExpand = (chapterId) => {
+    setExpandedChapterId((prev) => (prev === chapterId ? null : chapterId))
+    const chapter = chapters.find((ch) => ch.id === chapterId)
+    if (chapter && !chapter.contentLoaded) {
+      loadChapterContent(chapterId)
+    }
+  }
   
   const handleDeleteChapter = (id) => {
     setChapters((prev) => prev.filter((ch) => ch.id !== id))
@@ -156,7 +186,10 @@ export default function EditStory() {
         
         data.append(`chapters[${index}].title`, chapter.title);
         data.append(`chapters[${index}].chapterNumber`, index + 1);
-        data.append(`chapters[${index}].content`, chapter.content);
+        // Không gửi content thì server giữ nguyên nội dung chương
+        if (chapter.isNew || chapter.contentDirty) {
+          data.append(`chapters[${index}].content`, chapter.content ?? '');
+        }
       });
 
       await storyService.updateStory(id, data);
@@ -304,9 +337,7 @@ export default function EditStory() {
               <ChapterAccordion
                 chapters={chapters}
                 expandedId={expandedChapterId}
-                onToggleExpand={(id) =>
-                  setExpandedChapterId((prev) => (prev === id ? null : id))
-                }
+                onToggleExpand={handleToggleExpand}
                 onUpdateChapter={handleUpdateChapter}
                 onDeleteChapter={handleDeleteChapter}
                 onAddChapter={handleAddChapter}
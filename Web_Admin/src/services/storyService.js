@@ -33,6 +33,21 @@ const getStoryById = async (id) => {
   }
 };
 
+// Chi tiết truyện chỉ có mục lục, nội dung chương lấy riêng theo id
+const getChapterById = async (chapterId) => {
+  const token = localStorage.getItem('accessToken');
+  try {
+    const response = await axios.get(`${API_URL}/chapter/${chapterId}`, {
+      headers: {
+        'Authorization': `Bearer ${token}`
+      }
+    });
+    return response.data;
+  } catch (error) {
+    throw error;
+  }
+};
+
 const updateStory = async (id, formData) => {
   const token = localStorage.getItem('accessToken');
   try {
@@ -152,6 +167,7 @@ const toggleWebView = async (id) => {
 const storyService = {
   createStory,
   getStoryById,
+  getChapterById,
   updateStory,
   extractEpub,
   saveExtractedStory,